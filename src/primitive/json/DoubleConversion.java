@@ -0,0 +1,173 @@
+package primitive.json;
+
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//-----------------------------------------------------------------------------
+import java.math.BigInteger;
+
+/*******************************************************************************
+ * Correctly rounded conversion of a decimal significand and exponent to
+ * double. Exactly representable cases are computed with a single floating
+ * point operation (Clinger's fast path), all other ones with the
+ * Eisel-Lemire algorithm, which multiplies the significand by a 128 bit
+ * approximation of the power of five. The results are identical to those
+ * of Double.parseDouble.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+final class DoubleConversion {
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private DoubleConversion() {
+   }
+
+   /****************************************************************************
+    * Converts significand * 10^exponent to the nearest double.
+    * @param significand unsigned significand of at most 19 decimal digits.
+    * @param exponent decimal exponent.
+    * @return non negative double.
+    ***************************************************************************/
+   static double toDouble(final long significand, final int exponent) {
+
+      if (significand == 0) {
+         return 0.0;
+      }
+      if (exponent >= -MAX_EXACT_POWER & exponent <= MAX_EXACT_POWER
+            & Long.compareUnsigned(significand, 1L << 53) <= 0) {
+         // both significand and power of ten are exact doubles
+         final double value = significand;
+         return exponent < 0 ? value / POWERS_OF_TEN[-exponent]
+               : value * POWERS_OF_TEN[exponent];
+      }
+      if (exponent < MIN_EXPONENT) {
+         return 0.0;
+      }
+      if (exponent > MAX_EXPONENT) {
+         return Double.POSITIVE_INFINITY;
+      }
+      return eiselLemire(significand, exponent);
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private static double eiselLemire(long significand, final int exponent) {
+
+      final int leadingZeros = Long.numberOfLeadingZeros(significand);
+      significand <<= leadingZeros;
+      final int index = 2 * (exponent - MIN_EXPONENT);
+      long high = multiplyHigh(significand, POWERS_OF_FIVE[index]);
+      long low = significand * POWERS_OF_FIVE[index];
+      if ((high & 0x1FF) == 0x1FF) {
+         // the truncated product may be too low - refine it with next 64 bits
+         final long secondHigh = multiplyHigh(significand,
+               POWERS_OF_FIVE[index + 1]);
+         low += secondHigh;
+         if (Long.compareUnsigned(secondHigh, low) > 0) {
+            ++high;
+         }
+      }
+      final int upperBit = (int) (high >>> 63);
+      final int shift = upperBit + 9;
+      long mantissa = high >>> shift;
+      int power2 = (((152170 + 65536) * exponent) >> 16) + 63 + upperBit
+            - leadingZeros + 1023;
+      if (power2 <= 0) {
+         // subnormal
+         if (-power2 + 1 >= 64) {
+            return 0.0;
+         }
+         mantissa >>>= -power2 + 1;
+         mantissa += mantissa & 1;
+         mantissa >>>= 1;
+         power2 = mantissa < (1L << 52) ? 0 : 1;
+         return Double.longBitsToDouble(((long) power2 << 52) | mantissa);
+      }
+      if (Long.compareUnsigned(low, 1) <= 0 & exponent >= -4 & exponent <= 23
+            & (mantissa & 3) == 1 && (mantissa << shift) == high) {
+         // exactly halfway between two doubles - round to even
+         mantissa &= ~1L;
+      }
+      mantissa += mantissa & 1;
+      mantissa >>>= 1;
+      if (mantissa >= (2L << 52)) {
+         mantissa = 1L << 52;
+         ++power2;
+      }
+      mantissa &= ~(1L << 52);
+      if (power2 >= 0x7FF) {
+         return Double.POSITIVE_INFINITY;
+      }
+      return Double.longBitsToDouble(((long) power2 << 52) | mantissa);
+   }
+
+   /****************************************************************************
+    * @return upper 64 bits of the unsigned 128 bit product of x and y.
+    ***************************************************************************/
+   private static long multiplyHigh(final long x, final long y) {
+
+      final long x0 = x & 0xFFFFFFFFL;
+      final long x1 = x >>> 32;
+      final long y0 = y & 0xFFFFFFFFL;
+      final long y1 = y >>> 32;
+      final long p01 = x0 * y1;
+      final long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+      return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+   }
+
+   /****************************************************************************
+    * Computes 128 bit approximations of powers of five for exponents from
+    * MIN_EXPONENT to MAX_EXPONENT, normalized so that the highest bit is set.
+    * Negative powers are rounded up, positive ones truncated.
+    ***************************************************************************/
+   private static long[] powersOfFive() {
+
+      final long[] result = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+      final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(
+            BigInteger.ONE);
+      final BigInteger five = BigInteger.valueOf(5);
+      int index = 0;
+      for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; ++q) {
+         BigInteger value;
+         if (q < 0) {
+            final BigInteger power = five.pow(-q);
+            final int z = power.bitLength();
+            final int b = q >= -27 ? z + 127 : 2 * z + 128;
+            value = BigInteger.ONE.shiftLeft(b).divide(power).add(
+                  BigInteger.ONE);
+         } else {
+            value = five.pow(q);
+         }
+         final int excess = value.bitLength() - 128;
+         value = excess > 0 ? value.shiftRight(excess)
+               : value.shiftLeft(-excess);
+         result[index++] = value.shiftRight(64).longValue();
+         result[index++] = value.and(mask).longValue();
+      }
+      return result;
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private final static int MIN_EXPONENT = -342;
+   private final static int MAX_EXPONENT = 308;
+   private final static int MAX_EXACT_POWER = 22;
+   private final static double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4,
+      1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17,
+      1e18, 1e19, 1e20, 1e21, 1e22};
+   private final static long[] POWERS_OF_FIVE = powersOfFive();
+}
@@ -0,0 +1,507 @@
+package primitive.json;
+
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//-----------------------------------------------------------------------------
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/*******************************************************************************
+ * Formats finite doubles and floats into a char buffer using the
+ * shortest decimal that rounds to the same value (Schubfach algorithm by
+ * Raffaello Giulietti). The layout follows Double.toString: plain notation
+ * for magnitudes from 10^-3 to 10^7, scientific notation otherwise, always
+ * with a fractional digit so that the text is parsed back as a decimal.
+ * Optionally the value is rounded half up to a fixed number of significant 
+ * digits.
+ * This class is not thread safe.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+final class DoubleFormatter {
+
+   /****************************************************************************
+    * Formats a finite double into chars starting at index. At most 24 chars 
+    * are written.
+    * @return index following the written chars.
+    ***************************************************************************/
+   int format(final double value, final char[] chars, final int index) {
+
+      this.chars = chars;
+      this.index = index;
+      this.magnitude = Math.abs(value);
+      final long bits = Double.doubleToRawLongBits(value);
+      final long t = bits & ((1L << 52) - 1);
+      final int bq = (int) (bits >>> 52) & 0x7FF;
+      if (bits < 0) {
+         append('-');
+      }
+      if (bq != 0) {
+         // normal value
+         final int mq = 1075 - bq;
+         final long c = (1L << 52) | t;
+         if (0 < mq & mq < 53) {
+            final long f = c >> mq;
+            if (f << mq == c) {
+               // integer
+               toChars(f, 0);
+               return this.index;
+            }
+         }
+         toDecimal(-mq, c, 0);
+      } else if (t != 0) {
+         // subnormal value
+         if (t < 3) {
+            toDecimal(DOUBLE_Q_MIN, 10 * t, -1);
+         } else {
+            toDecimal(DOUBLE_Q_MIN, t, 0);
+         }
+      } else {
+         append('0');
+         append('.');
+         append('0');
+      }
+      return this.index;
+   }
+
+   /****************************************************************************
+    * Formats a finite float into chars starting at index. At most 15 chars 
+    * are written.
+    * @return index following the written chars.
+    ***************************************************************************/
+   int format(final float value, final char[] chars, final int index) {
+
+      this.chars = chars;
+      this.index = index;
+      this.magnitude = Math.abs((double) value);
+      final int bits = Float.floatToRawIntBits(value);
+      final int t = bits & ((1 << 23) - 1);
+      final int bq = (bits >>> 23) & 0xFF;
+      if (bits < 0) {
+         append('-');
+      }
+      if (bq != 0) {
+         // normal value
+         final int mq = 150 - bq;
+         final int c = (1 << 23) | t;
+         if (0 < mq & mq < 24) {
+            final int f = c >> mq;
+            if (f << mq == c) {
+               // integer
+               toChars(f, 0);
+               return this.index;
+            }
+         }
+         toDecimal(-mq, c, 0);
+      } else if (t != 0) {
+         // subnormal value
+         if (t < 8) {
+            toDecimal(FLOAT_Q_MIN, 10 * t, -1);
+         } else {
+            toDecimal(FLOAT_Q_MIN, t, 0);
+         }
+      } else {
+         append('0');
+         append('.');
+         append('0');
+      }
+      return this.index;
+   }
+
+   /****************************************************************************
+    * Computes the shortest decimal within the rounding interval of
+    * the double c * 2^q.
+    ***************************************************************************/
+   private void toDecimal(final int q, final long c, final int dk) {
+
+      final int out = (int) c & 1;
+      final long cb = c << 2;
+      final long cbr = cb + 2;
+      final long cbl;
+      final int k;
+      if (c != (1L << 52) | q == DOUBLE_Q_MIN) {
+         cbl = cb - 2;
+         k = floorLog10Pow2(q);
+      } else {
+         cbl = cb - 1;
+         k = floorLog10ThreeQuartersPow2(q);
+      }
+      final int h = q + floorLog2Pow10(-k) + 2;
+      final long g1 = G[(k - K_MIN) << 1];
+      final long g0 = G[(k - K_MIN) << 1 | 1];
+
+      final long vb = roundOdd(g1, g0, cb << h);
+      final long vbl = roundOdd(g1, g0, cbl << h);
+      final long vbr = roundOdd(g1, g0, cbr << h);
+
+      final long s = vb >> 2;
+      if (s >= 100) {
+         final long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+         final long tp10 = sp10 + 10;
+         final boolean upin = vbl + out <= sp10 << 2;
+         final boolean wpin = (tp10 << 2) + out <= vbr;
+         if (upin != wpin) {
+            toChars(upin ? sp10 : tp10, k);
+            return;
+         }
+      }
+      final long t = s + 1;
+      final boolean uin = vbl + out <= s << 2;
+      final boolean win = (t << 2) + out <= vbr;
+      if (uin != win) {
+         toChars(uin ? s : t, k + dk);
+         return;
+      }
+      final long cmp = vb - (s + t << 1);
+      toChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk);
+   }
+
+   /****************************************************************************
+    * Computes the shortest decimal within the rounding interval of
+    * the float c * 2^q.
+    ***************************************************************************/
+   private void toDecimal(final int q, final int c, final int dk) {
+
+      final int out = c & 1;
+      final long cb = c << 2;
+      final long cbr = cb + 2;
+      final long cbl;
+      final int k;
+      if (c != (1 << 23) | q == FLOAT_Q_MIN) {
+         cbl = cb - 2;
+         k = floorLog10Pow2(q);
+      } else {
+         cbl = cb - 1;
+         k = floorLog10ThreeQuartersPow2(q);
+      }
+      final int h = q + floorLog2Pow10(-k) + 33;
+      final long g = G[(k - K_MIN) << 1] + 1;
+
+      final int vb = roundOdd(g, cb << h);
+      final int vbl = roundOdd(g, cbl << h);
+      final int vbr = roundOdd(g, cbr << h);
+
+      final int s = vb >> 2;
+      if (s >= 100) {
+         final int sp10 = 10 * (int) (s * 1717986919L >>> 34);
+         final int tp10 = sp10 + 10;
+         final boolean upin = vbl + out <= sp10 << 2;
+         final boolean wpin = (tp10 << 2) + out <= vbr;
+         if (upin != wpin) {
+            toChars(upin ? sp10 : tp10, k);
+            return;
+         }
+      }
+      final int t = s + 1;
+      final boolean uin = vbl + out <= s << 2;
+      final boolean win = (t << 2) + out <= vbr;
+      if (uin != win) {
+         toChars(uin ? s : t, k + dk);
+         return;
+      }
+      final int cmp = vb - (s + t << 1);
+      toChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk);
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private static long roundOdd(final long g1, final long g0, final long cp) {
+
+      final long x1 = multiplyHigh(g0, cp);
+      final long y0 = g1 * cp;
+      final long y1 = multiplyHigh(g1, cp);
+      final long z = (y0 >>> 1) + x1;
+      final long vbp = y1 + (z >>> 63);
+      return vbp | (z & MASK_63) + MASK_63 >>> 63;
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private static int roundOdd(final long g, final long cp) {
+
+      final long x1 = multiplyHigh(g, cp);
+      final long vbp = x1 >>> 31;
+      return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+   }
+
+   /****************************************************************************
+    * Writes f * 10^e rounded to precision significant digits if required.
+    * The leading digits of f are those of the value, but the remaining ones 
+    * may be on the other side of the half, so the rounding is decided by 
+    * comparing the midpoint between the candidates with the exact value.
+    ***************************************************************************/
+   private void toChars(long f, int e) {
+
+      int length = decimalLength(f);
+      if (this.precision > 0 & length > this.precision) {
+         final int dropped = length - this.precision;
+         final long truncated = f / POWERS_OF_TEN[dropped];
+         final boolean up = compareToMagnitude(10 * truncated + 5, 
+               e + dropped - 1) <= 0;
+         f = up ? truncated + 1 : truncated;
+         e += dropped;
+         length = decimalLength(f);
+      }
+      // normalize to 0.f * 10^e with f of exactly 17 digits
+      f *= POWERS_OF_TEN[17 - length];
+      e += length;
+
+      final long hm = multiplyHigh(f, 193428131138340668L) >>> 20;
+      final int l = (int) (f - 100000000L * hm);
+      final int h = (int) (hm * 1441151881L >>> 57);
+      final int m = (int) (hm - 100000000 * h);
+      if (0 < e & e <= 7) {
+         // plain format without leading zeroes
+         appendDigit(h);
+         int y = y(m);
+         int i = 1;
+         for (; i < e; ++i) {
+            final int t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+         }
+         append('.');
+         for (; i <= 8; ++i) {
+            final int t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+         }
+         lowDigits(l);
+      } else if (-3 < e & e <= 0) {
+         // plain format with leading zeroes
+         appendDigit(0);
+         append('.');
+         for (; e < 0; ++e) {
+            appendDigit(0);
+         }
+         appendDigit(h);
+         append8Digits(m);
+         lowDigits(l);
+      } else {
+         // scientific notation
+         appendDigit(h);
+         append('.');
+         append8Digits(m);
+         lowDigits(l);
+         exponent(e - 1);
+      }
+   }
+
+   /****************************************************************************
+    * Compares significand * 10^exponent with the exact magnitude of 
+    * the formatted value. Only if the decimal is nearest to the value itself 
+    * both are compared as BigDecimal.
+    * @return negative, zero or positive number if the decimal is less, 
+    * equal or greater than the magnitude.
+    ***************************************************************************/
+   private int compareToMagnitude(final long significand, final int exponent) {
+
+      final double nearest = DoubleConversion.toDouble(significand, exponent);
+      if (nearest != this.magnitude) {
+         return Double.compare(nearest, this.magnitude);
+      }
+      return new BigDecimal(BigInteger.valueOf(significand), -exponent)
+            .compareTo(new BigDecimal(this.magnitude));
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void lowDigits(final int l) {
+
+      if (l != 0) {
+         append8Digits(l);
+      }
+      // remove trailing zeroes but keep the one directly following '.'
+      while (this.chars[this.index - 1] == '0') {
+         --this.index;
+      }
+      if (this.chars[this.index - 1] == '.') {
+         ++this.index;
+      }
+   }
+
+   /****************************************************************************
+    * Appends 8 digits extracting them left to right with multiplications.
+    ***************************************************************************/
+   private void append8Digits(final int m) {
+
+      int y = y(m);
+      for (int i = 0; i < 8; ++i) {
+         final int t = 10 * y;
+         appendDigit(t >>> 28);
+         y = t & MASK_28;
+      }
+   }
+
+   /****************************************************************************
+    * @return floor((a + 1) * 2^28 / 10^8) - 1
+    ***************************************************************************/
+   private static int y(final int a) {
+
+      return (int) (multiplyHigh((long) (a + 1) << 28, 193428131138340668L)
+            >>> 20) - 1;
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void exponent(int e) {
+
+      append('E');
+      if (e < 0) {
+         append('-');
+         e = -e;
+      }
+      if (e < 10) {
+         appendDigit(e);
+         return;
+      }
+      int d;
+      if (e >= 100) {
+         d = e * 1311 >>> 17;
+         appendDigit(d);
+         e -= 100 * d;
+      }
+      d = e * 103 >>> 10;
+      appendDigit(d);
+      appendDigit(e - 10 * d);
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void appendDigit(final int digit) {
+
+      this.chars[this.index++] = (char) ('0' + digit);
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void append(final char chr) {
+
+      this.chars[this.index++] = chr;
+   }
+
+   /****************************************************************************
+    * @return number of decimal digits of a positive f.
+    ***************************************************************************/
+   private static int decimalLength(final long f) {
+
+      int length = floorLog10Pow2(64 - Long.numberOfLeadingZeros(f));
+      if (f >= POWERS_OF_TEN[length]) {
+         ++length;
+      }
+      return length;
+   }
+
+   /****************************************************************************
+    * @return floor(log10(2^e))
+    ***************************************************************************/
+   private static int floorLog10Pow2(final int e) {
+
+      return (int) (e * 661971961083L >> 41);
+   }
+
+   /****************************************************************************
+    * @return floor(log10(3/4 * 2^e))
+    ***************************************************************************/
+   private static int floorLog10ThreeQuartersPow2(final int e) {
+
+      return (int) (e * 661971961083L + -274743187321L >> 41);
+   }
+
+   /****************************************************************************
+    * @return floor(log2(10^e))
+    ***************************************************************************/
+   private static int floorLog2Pow10(final int e) {
+
+      return (int) (e * 913124641741L >> 38);
+   }
+
+   /****************************************************************************
+    * @return upper 64 bits of the 128 bit product of non negative x and y.
+    ***************************************************************************/
+   private static long multiplyHigh(final long x, final long y) {
+
+      final long x0 = x & 0xFFFFFFFFL;
+      final long x1 = x >>> 32;
+      final long y0 = y & 0xFFFFFFFFL;
+      final long y1 = y >>> 32;
+      final long p01 = x0 * y1;
+      final long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+      return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+   }
+
+   /****************************************************************************
+    * For each k from K_MIN to K_MAX computes g = floor(10^-k * 2^-r) + 1,
+    * where r is such that 2^125 <= 10^-k * 2^-r < 2^126, split into its
+    * upper and lower 63 bits.
+    ***************************************************************************/
+   private static long[] g() {
+
+      final long[] result = new long[2 * (K_MAX - K_MIN + 1)];
+      final BigInteger mask = BigInteger.ONE.shiftLeft(63).subtract(
+            BigInteger.ONE);
+      int index = 0;
+      for (int k = K_MIN; k <= K_MAX; ++k) {
+         BigInteger beta;
+         if (k <= 0) {
+            final BigInteger power = BigInteger.TEN.pow(-k);
+            final int shift = 126 - power.bitLength();
+            beta = shift >= 0 ? power.shiftLeft(shift)
+                  : power.shiftRight(-shift);
+         } else {
+            final BigInteger power = BigInteger.TEN.pow(k);
+            beta = BigInteger.ONE.shiftLeft(125 + power.bitLength())
+                  .divide(power);
+         }
+         final BigInteger g = beta.add(BigInteger.ONE);
+         result[index++] = g.shiftRight(63).longValue();
+         result[index++] = g.and(mask).longValue();
+      }
+      return result;
+   }
+
+   /****************************************************************************
+    * Sets the number of significant digits or 0 for the shortest
+    * representation.
+    ***************************************************************************/
+   void setPrecision(final int precision) {
+
+      this.precision = precision;
+   }
+
+   private char[] chars;
+   private int index;
+   private int precision;
+   private double magnitude;
+
+   private final static int DOUBLE_Q_MIN = -1074;
+   private final static int FLOAT_Q_MIN = -149;
+   private final static int K_MIN = -324;
+   private final static int K_MAX = 292;
+   private final static long MASK_63 = (1L << 63) - 1;
+   private final static long MASK_32 = (1L << 32) - 1;
+   private final static int MASK_28 = (1 << 28) - 1;
+   private final static long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L,
+      10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+      10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+      100000000000000L, 1000000000000000L, 10000000000000000L,
+      100000000000000000L, 1000000000000000000L};
+   private final static long[] G = g();
+}
@@ -0,0 +1,91 @@
+package primitive.json;
+
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//-----------------------------------------------------------------------------
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import static java.util.Arrays.copyOf;
+
+/*******************************************************************************
+ * Unmodifiable list of double numbers kept unboxed in a double[]. Returned 
+ * by Parser for arrays of decimal numbers when primitive arrays are enabled,
+ * and written by Generator without boxing. Elements are boxed only by 
+ * the List methods, so getDouble(int) should be preferred.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public final class DoubleList extends AbstractList<Object> implements RandomAccess {
+
+   /****************************************************************************
+    * Creates a list backed by an array. The array is not copied.
+    * @param values list elements.
+    * @throws NullPointerException if values is null.
+    ***************************************************************************/
+   public DoubleList(final double[] values) {
+
+      this(values, values.length);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   DoubleList(final double[] values, final int size) {
+
+      this.values = values;
+      this.size = size;
+   }
+
+   /****************************************************************************
+    * @param index index of an element.
+    * @return the element.
+    * @throws IndexOutOfBoundsException if index is out of the list bounds.
+    ***************************************************************************/
+   public double getDouble(final int index) {
+
+      if (index < 0 | index >= this.size) {
+         throw new IndexOutOfBoundsException("index: " + index);
+      }
+      return this.values[index];
+   }
+
+   /****************************************************************************
+    * @return a copy of the list elements.
+    ***************************************************************************/
+   public double[] toDoubleArray() {
+
+      return copyOf(this.values, this.size);
+   }
+
+   /****************************************************************************
+    * @return boxed element.
+    ***************************************************************************/
+   @Override
+   public Object get(final int index) {
+
+      return getDouble(index);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   public int size() {
+
+      return this.size;
+   }
+
+   private final double[] values;
+   private final int size;
+}
@@ -15,19 +15,37 @@
 //------------------------------------------------------------------------------
 package primitive.json;
 
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
 
 /*******************************************************************************
  * JSON generator. This class is not thread safe but can be reused for generating 
  * consecutive JSON messages one by one.
+ * The text is generated into an internal buffer which is passed to the output 
+ * in large blocks, so the output does not need to be buffered. Byte outputs 
+ * receive the text encoded in UTF-8 directly from the buffer.
+ * Documents too large to be built in memory can be written incrementally 
+ * with a StreamWriter.
  * This generator accepts object of type:
  *   <ul>
  *   <li>null,</li>
  *   <li>java.util.HashMap,</li>
  *   <li>java.util.ArrayList,</li>
+ *   <li>primitive.json.LongList,</li>
+ *   <li>primitive.json.DoubleList,</li>
  *   <li>java.lang.String,</li>
  *   <li>java.lang.Byte,</li>
  *   <li>java.lang.Short,</li>
@@ -35,6 +53,9 @@ import java.util.Map;
  *   <li>java.lang.Long,</li>
  *   <li>java.lang.Float,</li>
  *   <li>java.lang.Double,</li>
+ *   <li>primitive.json.RawNumber (written verbatim),</li>
+ *   <li>java.math.BigInteger,</li>
+ *   <li>java.math.BigDecimal,</li>
  *   <li>java.lang.Boolean,</li>
  *   <li>org.json.primitive.Null,</li>
  *   <li>objects of any other class (converted to string using toString method)</li>
@@ -51,6 +72,54 @@ public final class Generator {
 
    }
 
+   /****************************************************************************
+    * Sets the number of significant digits of written doubles and floats. 
+    * By default (0) they are written with the shortest representation 
+    * which is parsed back to the same value. A fixed precision makes 
+    * the output shorter when the full precision is not needed, like in 
+    * metrics. The exact binary value is rounded half up, so 9.995, 
+    * which is stored as 9.99499..., is written as 9.99 with 3 digits. Values 
+    * whose shortest representation is not longer are written as it is.
+    * @param digits number of significant digits from 1 to 17 or 0 for 
+    * the shortest exact representation.
+    * @throws IllegalArgumentException if digits < 0 or digits > 17.
+    ***************************************************************************/
+   public void setSignificantDigits(final int digits) {
+
+      if (digits < 0 | digits > 17) {
+         throw new IllegalArgumentException("digits < 0 or digits > 17");
+      }
+      this.formatter.setPrecision(digits);
+   }
+
+   /****************************************************************************
+    * Sets the size of a cache of object keys. The quoted and escaped form 
+    * of cached keys, ready to be copied to the output at once, is kept 
+    * between messages, so objects with a fixed set of keys, like 
+    * telemetry records, are generated without escaping their keys again. 
+    * Keys are stored in a two way set associative table indexed by their 
+    * hash codes, and a new key evicts the least recently used one of its 
+    * set. Keys longer than 64 characters are not cached.
+    * @param capacity maximum number of cached keys, rounded up to a power 
+    * of two, or 0 for no caching (the default).
+    * @throws IllegalArgumentException if capacity < 0 or capacity > 2^30.
+    ***************************************************************************/
+   public void setKeyCacheSize(final int capacity) {
+
+      if (capacity < 0 | capacity > 1 << 30) {
+         throw new IllegalArgumentException("capacity: " + capacity);
+      }
+      if (capacity == 0) {
+         this.cachedKeys = null;
+         this.encodedKeys = null;
+      } else {
+         final int size = Math.max(Integer.highestOneBit(capacity - 1) << 1, 2);
+         this.cachedKeys = new String[size];
+         this.encodedKeys = new char[size][];
+         this.keySetMask = size / 2 - 1;
+      }
+   }
+
    /****************************************************************************
     * Encode an object into JSON text and write it to out.
     * 
@@ -63,19 +132,8 @@ public final class Generator {
    public void write(final Object value, final Appendable out)
            throws IOException {
 
-      if (value == null) {
-         throw new NullPointerException("value");
-      }
-
-      if (Map.class.isInstance(value)) {
-         write((Map) value, out);
-         return;
-      }
-      if (List.class.isInstance(value)) {
-         write((List) value, out);
-         return;
-      }
-      throw new IllegalArgumentException("Only Map or List accepted");
+      checkRoot(value);
+      writeTo(value, out, false);
    }
 
    /****************************************************************************
@@ -88,17 +146,162 @@ public final class Generator {
     ***************************************************************************/
    public String toString(final Object value) {
 
+      checkRoot(value);
+      generate(value);
+      try {
+         return new String(this.chars, 0, this.index);
+      } finally {
+         reset();
+      }
+   }
+
+   /****************************************************************************
+    * Encode an object into JSON text.
+    * 
+    * @param value JSON object.
+    * @return JSON text.
+    * @throws NullPointerException if value == null.
+    * @throws IllegalArgumentException if value is not Map or List.
+    ***************************************************************************/
+   public char[] toCharArray(final Object value) {
+
+      checkRoot(value);
+      generate(value);
       try {
-         final Appendable wr = new StringBuilder(32);
-         write(value, wr);
-         return wr.toString();
+         return copyOf(this.chars, this.index);
+      } finally {
+         reset();
+      }
+   }
+
+   /****************************************************************************
+    * Encode an object into JSON text without copying it. 
+    * 
+    * @param value JSON object.
+    * @return read only view of the internal buffer holding JSON text. 
+    * The view is valid until the generator is used again.
+    * @throws NullPointerException if value == null.
+    * @throws IllegalArgumentException if value is not Map or List.
+    ***************************************************************************/
+   public CharBuffer toCharBuffer(final Object value) {
+
+      checkRoot(value);
+      generate(value);
+      final CharBuffer result = CharBuffer.wrap(this.chars, 0, this.index)
+              .asReadOnlyBuffer();
+      this.index = 0;
+      return result;
+   }
+
+   /****************************************************************************
+    * Encode an object into JSON text and write it to out in UTF-8.
+    * 
+    * @param value JSON object.
+    * @param out output stream.
+    * @throws IOException if output error occurs.
+    * @throws NullPointerException if value or out == null.
+    * @throws IllegalArgumentException if value is not Map or List.
+    ***************************************************************************/
+   public void writeUtf8(final Object value, final OutputStream out)
+           throws IOException {
+
+      checkRoot(value);
+      writeTo(value, out, true);
+   }
+
+   /****************************************************************************
+    * Encode an object into JSON text and write it to a blocking channel 
+    * in UTF-8.
+    * 
+    * @param value JSON object.
+    * @param out channel.
+    * @throws IOException if output error occurs.
+    * @throws NullPointerException if value or out == null.
+    * @throws IllegalArgumentException if value is not Map or List.
+    ***************************************************************************/
+   public void writeUtf8(final Object value, final WritableByteChannel out)
+           throws IOException {
+
+      checkRoot(value);
+      writeTo(value, out, true);
+   }
+
+   /****************************************************************************
+    * Encode an object into JSON text and put it into a heap or direct buffer 
+    * in UTF-8 starting at its position. Heap buffers with enough space 
+    * remaining are encoded into without intermediate copies.
+    * 
+    * @param value JSON object.
+    * @param out buffer.
+    * @throws java.nio.BufferOverflowException if there is not enough space 
+    * remaining in out. Part of the text may have been put into it.
+    * @throws java.nio.ReadOnlyBufferException if out is read only.
+    * @throws NullPointerException if value or out == null.
+    * @throws IllegalArgumentException if value is not Map or List.
+    ***************************************************************************/
+   public void writeUtf8(final Object value, final ByteBuffer out) {
+
+      checkRoot(value);
+      try {
+         writeTo(value, out, true);
       } catch (final IOException e) {
          throw new RuntimeException(e.getMessage()); // never happens
       }
    }
 
    /****************************************************************************
-    * Encode an ArrayList into JSON text and write it to out.
+    * Encode an object into JSON text in UTF-8.
+    * 
+    * @param value JSON object.
+    * @return JSON text.
+    * @throws NullPointerException if value == null.
+    * @throws IllegalArgumentException if value is not Map or List.
+    ***************************************************************************/
+   public byte[] toUtf8(final Object value) {
+
+      checkRoot(value);
+      generate(value);
+      try {
+         final int length = encode(this.index);
+         return copyOf(this.bytes, length);
+      } finally {
+         reset();
+      }
+   }
+
+   /****************************************************************************
+    * Creates a streaming writer generating JSON text incrementally to out 
+    * with the number formatting and escaping of this generator. 
+    * The generator must not be used for other output until the writer 
+    * is closed.
+    * 
+    * @param out appendable object.
+    * @return a writer.
+    * @throws NullPointerException if out == null.
+    ***************************************************************************/
+   public StreamWriter writer(final Appendable out) {
+
+      return open(out, false);
+   }
+
+   /****************************************************************************
+    * Creates a streaming writer generating JSON text incrementally to out 
+    * in UTF-8. The generator must not be used for other output until 
+    * the writer is closed.
+    * 
+    * @param out output stream.
+    * @return a writer.
+    * @throws NullPointerException if out == null.
+    ***************************************************************************/
+   public StreamWriter writerUtf8(final OutputStream out) {
+
+      return open(out, true);
+   }
+
+   /****************************************************************************
+    * Encode an ArrayList into JSON text and write it to out. LongList and 
+    * DoubleList are written without boxing, with infinite and NaN doubles 
+    * written as null.
     * 
     * @param value list.
     * @param out appendable object.
@@ -108,17 +311,8 @@ public final class Generator {
    public void write(final List<?> value, final Appendable out)
            throws IOException {
 
-      final int lastIndex = value.size() - 1;
-      
-      out.append('[');
-      if (lastIndex > -1) {
-         for (int i = 0; i < lastIndex; ++i) {
-            writeValue(value.get(i), out);
-            out.append(',');
-         }
-         writeValue(value.get(lastIndex), out);
-      }
-      out.append(']');
+      checkNotNull(value);
+      writeTo(value, out, false);
    }
 
    /****************************************************************************
@@ -130,13 +324,8 @@ public final class Generator {
     ***************************************************************************/
    public String toString(final List<?> value) {
 
-      try {
-         final Appendable wr = new StringBuilder(16);
-         write(value, wr);
-         return wr.toString();
-      } catch (final IOException e) {
-         throw new RuntimeException(e.getMessage()); // never happens
-      }
+      checkNotNull(value);
+      return toString((Object) value);
    }
 
    /****************************************************************************
@@ -150,27 +339,8 @@ public final class Generator {
    public void write(final Map value, final Appendable out)
            throws IOException {
 
-      final Iterator<Map.Entry> entries = value.entrySet().iterator();
-      
-      out.append('{');
-      if (entries.hasNext()) {
-         final Map.Entry entry = entries.next();
-         out.append('\"');
-         writeEscaped(entry.getKey().toString(), out);
-         out.append('\"');
-         out.append(':');
-         writeValue(entry.getValue(), out);
-      }
-      while (entries.hasNext()) {
-         out.append(',');
-         final Map.Entry entry = entries.next();
-         out.append('\"');
-         writeEscaped(entry.getKey().toString(), out);
-         out.append('\"');
-         out.append(':');
-         writeValue(entry.getValue(), out);
-      }
-      out.append('}');
+      checkNotNull(value);
+      writeTo(value, out, false);
    }
 
    /****************************************************************************
@@ -182,164 +352,926 @@ public final class Generator {
     ***************************************************************************/
    public String toString(final Map<?,?> value) {
 
+      checkNotNull(value);
+      return toString((Object) value);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static void checkRoot(final Object value) {
+
+      checkNotNull(value);
+      if (!(value instanceof Map | value instanceof List)) {
+         throw new IllegalArgumentException("Only Map or List accepted");
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static void checkNotNull(final Object value) {
+
+      if (value == null) {
+         throw new NullPointerException("value");
+      }
+   }
+
+   /****************************************************************************
+    * Generates a value flushing the buffer to out whenever it gets full.
+    * @param utf8 true if out is a byte output.
+    ***************************************************************************/
+   private void writeTo(final Object value, final Object out, 
+           final boolean utf8) throws IOException {
+
+      if (out == null) {
+         throw new NullPointerException("out");
+      }
+      this.target = out;
+      this.utf8 = utf8;
       try {
-         final Appendable wr = new StringBuilder(16);
-         write(value, wr);
-         return wr.toString();
+         generateValue(value);
+         flush(true);
+      } finally {
+         this.target = null;
+         reset();
+      }
+   }
+
+   /****************************************************************************
+    * Directs the buffer to out until the returned writer is closed.
+    ***************************************************************************/
+   private StreamWriter open(final Object out, final boolean utf8) {
+
+      if (out == null) {
+         throw new NullPointerException("out");
+      }
+      this.target = out;
+      this.utf8 = utf8;
+      this.index = 0;
+      return new StreamWriter();
+   }
+
+   /****************************************************************************
+    * Generates a value into the buffer growing it as needed.
+    ***************************************************************************/
+   private void generate(final Object value) {
+
+      this.index = 0;
+      try {
+         generateValue(value);
       } catch (final IOException e) {
+         reset();
          throw new RuntimeException(e.getMessage()); // never happens
       }
    }
 
+   /****************************************************************************
+    * Empties the buffer releasing it if it has grown large.
+    ***************************************************************************/
+   private void reset() {
+
+      this.index = 0;
+      if (this.chars.length > MAX_RETAINED_BUFFER_SIZE) {
+         this.chars = new char[BUFFER_SIZE];
+      }
+      if (this.bytes.length > 3 * MAX_RETAINED_BUFFER_SIZE) {
+         this.bytes = new byte[0];
+      }
+   }
+
    /****************************************************************************
     * 
     ***************************************************************************/
-   private void writeValue(final Object value, final Appendable out)
-           throws IOException {
+   private void generate(final List<?> value) throws IOException {
+
+      if (value instanceof LongList) {
+         generate((LongList) value);
+         return;
+      }
+      if (value instanceof DoubleList) {
+         generate((DoubleList) value);
+         return;
+      }
+      final int lastIndex = value.size() - 1;
+      
+      append('[');
+      if (lastIndex > -1) {
+         for (int i = 0; i < lastIndex; ++i) {
+            generateValue(value.get(i));
+            append(',');
+         }
+         generateValue(value.get(lastIndex));
+      }
+      append(']');
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void generate(final LongList value) throws IOException {
+
+      final int size = value.size();
+
+      append('[');
+      for (int i = 0; i < size; ++i) {
+         if (i > 0) {
+            append(',');
+         }
+         generate(value.getLong(i));
+      }
+      append(']');
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void generate(final DoubleList value) throws IOException {
+
+      final int size = value.size();
+
+      append('[');
+      for (int i = 0; i < size; ++i) {
+         if (i > 0) {
+            append(',');
+         }
+         final double d = value.getDouble(i);
+         if (Double.isInfinite(d) | Double.isNaN(d)) {
+            append("null");
+         } else {
+            generate(d);
+         }
+      }
+      append(']');
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void generate(final Map<?, ?> value) throws IOException {
+
+      final Iterator<? extends Map.Entry<?, ?>> entries = value.entrySet().iterator();
+      
+      append('{');
+      if (entries.hasNext()) {
+         final Map.Entry<?, ?> entry = entries.next();
+         generateKey(entry.getKey().toString());
+         generateValue(entry.getValue());
+      }
+      while (entries.hasNext()) {
+         append(',');
+         final Map.Entry<?, ?> entry = entries.next();
+         generateKey(entry.getKey().toString());
+         generateValue(entry.getValue());
+      }
+      append('}');
+   }
+
+   /****************************************************************************
+    * Writes a quoted key followed by a colon copying it from the key cache 
+    * if it is there.
+    ***************************************************************************/
+   private void generateKey(final String key) throws IOException {
+
+      if (this.cachedKeys == null || key.length() > MAX_CACHED_KEY_LENGTH) {
+         append('\"');
+         generateEscaped(key);
+         append('\"');
+         append(':');
+         return;
+      }
+      final int hash = key.hashCode();
+      final int set = ((hash ^ (hash >>> 16)) & this.keySetMask) << 1;
+      final char[] encoded;
+      if (key.equals(this.cachedKeys[set])) {
+         encoded = this.encodedKeys[set];
+      } else {
+         // the second way is either the key or the least recently used one
+         encoded = key.equals(this.cachedKeys[set + 1]) 
+                 ? this.encodedKeys[set + 1] : encodeKey(key);
+         this.cachedKeys[set + 1] = this.cachedKeys[set];
+         this.encodedKeys[set + 1] = this.encodedKeys[set];
+         this.cachedKeys[set] = key;
+         this.encodedKeys[set] = encoded;
+      }
+      final int length = encoded.length;
+      require(length);
+      System.arraycopy(encoded, 0, this.chars, this.index, length);
+      this.index += length;
+   }
+
+   /****************************************************************************
+    * Generates a quoted key followed by a colon into the buffer, making room 
+    * for the longest escaped form first, so that it is not flushed before 
+    * being copied out.
+    * @return the generated chars.
+    ***************************************************************************/
+   private char[] encodeKey(final String key) throws IOException {
+
+      require(6 * key.length() + 3);
+      final int start = this.index;
+      append('\"');
+      generateEscaped(key);
+      append('\"');
+      append(':');
+      final char[] result = copyOfRange(this.chars, start, this.index);
+      this.index = start;
+      return result;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void generateValue(final Object value) throws IOException {
 
       if (value == null) {
-         out.append("null");
+         append("null");
          return;
       }
       final Class<?> cls = value.getClass();
       if (cls == Double.class) {
          final Double d = (Double) value;
          if (d.isInfinite() | d.isNaN()) {
-            out.append("null");
+            append("null");
          } else {
-            write(d.doubleValue(), out);
+            generate(d.doubleValue());
          }
          return;
       }
       if (cls == Float.class) {
          final Float f = (Float) value;
          if (f.isInfinite() | f.isNaN()) {
-            out.append("null");
+            append("null");
          } else {
-            write(f.doubleValue(), out);
+            generate(f.floatValue());
          }
          return;
       }
+      if (cls == BigDecimal.class | cls == BigInteger.class) {
+         append(value.toString());
+         return;
+      }
+      if (cls == RawNumber.class) {
+         final RawNumber number = (RawNumber) value;
+         require(number.length());
+         this.index = number.getChars(this.chars, this.index);
+         return;
+      }
       if (Number.class.isInstance(value)) {
-         write(((Number) value).longValue(), out);
+         generate(((Number) value).longValue());
          return;
       }
       if (cls == Boolean.class) {
-         out.append(value.toString());
+         append(value.toString());
          return;
       }
       if (Map.class.isInstance(value)) {
-         write((Map) value, out);
+         generate((Map<?, ?>) value);
          return;
       }
       if (List.class.isInstance(value)) {
-         write((List) value, out);
+         generate((List) value);
          return;
       }
-      out.append('\"');
-      writeEscaped(value.toString(), out);
-      out.append('\"');
+      append('\"');
+      generateEscaped(value.toString());
+      append('\"');
    }
 
    /****************************************************************************
-    *
+    * Copies runs of chars that need no escaping in bulk, escaping the ones
+    * in between. Control chars are written as unicode escapes.
     ***************************************************************************/
-   private static void writeEscaped(final String s, final Appendable out)
-           throws IOException {
+   private void generateEscaped(final String s) throws IOException {
 
       final int length = s.length();
-      for (int i = 0; i < length; i++) {
-         final char ch = s.charAt(i);
-         switch (ch) {
-            case '"':
-               out.append('\\');
-               out.append('"');
-               break;
-            case '\\':
-               out.append('\\');
-               out.append('\\');
-               break;
-            case '\b':
-               out.append('\\');
-               out.append('b');
-               break;
-            case '\f':
-               out.append('\\');
-               out.append('f');
-               break;
-            case '\n':
-               out.append('\\');
-               out.append('n');
-               break;
-            case '\r':
-               out.append('\\');
-               out.append('r');
-               break;
-            case '\t':
-               out.append('\\');
-               out.append('t');
-               break;
-            case '/':
-               out.append('\\');
-               out.append('/');
-               break;
-            default:
-               out.append(ch);
+      int start = 0;
+      for (int i = 0; i < length; ++i) {
+         final char chr = s.charAt(i);
+         if (chr < ESCAPES.length && ESCAPES[chr] != 0) {
+            append(s, start, i);
+            appendEscaped(chr);
+            start = i + 1;
          }
-      }//for
+      }
+      append(s, start, length);
    }
 
    /****************************************************************************
-    *
+    * Writes an escape sequence of a character marked in ESCAPES.
     ***************************************************************************/
-   private void write(long value, final Appendable out)
-           throws IOException {
+   private void appendEscaped(final char chr) throws IOException {
 
-      if (value == 0) {
-         out.append('0');
-         return;
+      require(6);
+      final char[] chars = this.chars;
+      int index = this.index;
+      final char escape = ESCAPES[chr];
+      chars[index++] = '\\';
+      chars[index++] = escape;
+      if (escape == 'u') {
+         chars[index++] = '0';
+         chars[index++] = '0';
+         chars[index++] = HEX_DIGITS[chr >> 4];
+         chars[index++] = HEX_DIGITS[chr & 0xF];
+      }
+      this.index = index;
+   }
+
+   /****************************************************************************
+    * Writes digits right to left two at a time directly into the buffer. 
+    * Digits are computed from the negated value so that Long.MIN_VALUE 
+    * needs no special case.
+    ***************************************************************************/
+   private void generate(long value) throws IOException {
+
+      require(20);
+      final char[] chars = this.chars;
+      final char[] pairs = DIGIT_PAIRS;
+      final boolean negative = value < 0;
+      if (!negative) {
+         value = -value;
+      }
+      int index = this.index + stringSize(value) + (negative ? 1 : 0);
+      this.index = index;
+      while (value <= Integer.MIN_VALUE) {
+         final long quotient = value / 100;
+         final int pair = (int) (quotient * 100 - value) << 1;
+         value = quotient;
+         chars[--index] = pairs[pair + 1];
+         chars[--index] = pairs[pair];
       }
-      if (value < 0) {
-         out.append('-');
-         value *= -1;
+      int small = (int) value;
+      while (small <= -100) {
+         final int quotient = small / 100;
+         final int pair = (quotient * 100 - small) << 1;
+         small = quotient;
+         chars[--index] = pairs[pair + 1];
+         chars[--index] = pairs[pair];
       }
+      if (small <= -10) {
+         final int pair = -small << 1;
+         chars[--index] = pairs[pair + 1];
+         chars[--index] = pairs[pair];
+      } else {
+         chars[--index] = (char) ('0' - small);
+      }
+      if (negative) {
+         chars[--index] = '-';
+      }
+   }
 
-      final int[] buf = this.buf;
-      int index = 0;
-      while (value > 0) {
-         buf[index++] = '0' + (int) (value % 10);
-         value /= 10;
+   /****************************************************************************
+    * @return number of digits of a non positive value.
+    ***************************************************************************/
+   private static int stringSize(final long value) {
+
+      long power = -10;
+      for (int i = 1; i < 19; ++i) {
+         if (value > power) {
+            return i;
+         }
+         power *= 10;
       }
-      while (index > 0) {
-         out.append((char) buf[--index]);
+      return 19;
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void generate(final double value) throws IOException {
+
+      require(32);
+      this.index = this.formatter.format(value, this.chars, this.index);
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void generate(final float value) throws IOException {
+
+      require(32);
+      this.index = this.formatter.format(value, this.chars, this.index);
+   }
+
+   /****************************************************************************
+    *
+    ***************************************************************************/
+   private void append(final char chr) throws IOException {
+
+      if (this.index == this.chars.length) {
+         require(1);
       }
+      this.chars[this.index++] = chr;
    }
 
    /****************************************************************************
     *
     ***************************************************************************/
-   private void write(double value, final Appendable out)
+   private void append(final String str) throws IOException {
+
+      final int length = str.length();
+      require(length);
+      str.getChars(0, length, this.chars, this.index);
+      this.index += length;
+   }
+
+   /****************************************************************************
+    * Copies chars from start to end of str in runs as long as the buffer 
+    * allows, so that long strings do not make it grow.
+    ***************************************************************************/
+   private void append(final String str, int start, final int end)
            throws IOException {
 
-      write((long) value, out);
-      if (value < 0) {
-         value *= -1;
+      while (start < end) {
+         if (this.index == this.chars.length) {
+            require(1);
+         }
+         final int count = Math.min(end - start, this.chars.length - this.index);
+         str.getChars(start, start + count, this.chars, this.index);
+         this.index += count;
+         start += count;
       }
-      double decimal = value - (long) value;
-      out.append('.');
-      if (decimal == 0.0) {
-         out.append('0');
+   }
+
+   /****************************************************************************
+    * Makes room for length chars flushing the buffer if there is an output 
+    * or growing it otherwise.
+    ***************************************************************************/
+   private void require(final int length) throws IOException {
+
+      if (this.index + length <= this.chars.length) {
          return;
       }
-      for (int i = 0; i < 14; i++) {
-         decimal *= 10.0;
-         out.append((char) ('0' + (int) decimal));
-         decimal -= (int) decimal;
+      if (this.target != null) {
+         flush(false);
+         if (this.index + length <= this.chars.length) {
+            return;
+         }
+      }
+      this.chars = copyOf(this.chars, Math.max(2 * this.chars.length, 
+              this.index + length));
+   }
+
+   /****************************************************************************
+    * Passes the buffer content to the output in bulk. Unless it is the last 
+    * flush, a high surrogate ending the buffer is kept for its pair to be 
+    * encoded together.
+    ***************************************************************************/
+   private void flush(final boolean last) throws IOException {
+
+      final Object out = this.target;
+      if (!this.utf8) {
+         if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(this.chars, 0, this.index);
+         } else if (out instanceof Writer) {
+            ((Writer) out).write(this.chars, 0, this.index);
+         } else {
+            ((Appendable) out).append(CharBuffer.wrap(this.chars, 0, this.index));
+         }
+      } else {
+         int length = this.index;
+         final boolean split = !last && length > 0 
+                 && Character.isHighSurrogate(this.chars[length - 1]);
+         if (split) {
+            --length;
+         }
+         writeBytes(length);
+         if (split) {
+            this.chars[0] = this.chars[length];
+            this.index = 1;
+            return;
+         }
       }
+      this.index = 0;
+   }
+
+   /****************************************************************************
+    * Encodes length first chars of the buffer and writes them to the output.
+    ***************************************************************************/
+   private void writeBytes(final int length) throws IOException {
+
+      final Object out = this.target;
+      if (out instanceof ByteBuffer) {
+         final ByteBuffer buffer = (ByteBuffer) out;
+         if (buffer.hasArray() && buffer.remaining() >= 3 * length) {
+            // encode in place
+            final int start = buffer.arrayOffset() + buffer.position();
+            final int end = encode(this.chars, length, buffer.array(), start);
+            buffer.position(buffer.position() + end - start);
+         } else {
+            final int count = encode(length);
+            buffer.put(this.bytes, 0, count);
+         }
+      } else if (out instanceof OutputStream) {
+         final int count = encode(length);
+         ((OutputStream) out).write(this.bytes, 0, count);
+      } else {
+         final int count = encode(length);
+         final ByteBuffer buffer = ByteBuffer.wrap(this.bytes, 0, count);
+         while (buffer.hasRemaining()) {
+            ((WritableByteChannel) out).write(buffer);
+         }
+      }
+   }
+
+   /****************************************************************************
+    * Encodes length first chars of the buffer into the byte buffer.
+    * @return number of bytes.
+    ***************************************************************************/
+   private int encode(final int length) {
+
+      if (this.bytes.length < 3 * length) {
+         this.bytes = new byte[Math.max(3 * length, 3 * BUFFER_SIZE)];
+      }
+      return encode(this.chars, length, this.bytes, 0);
+   }
+
+   /****************************************************************************
+    * Encodes length first chars into UTF-8 replacing unpaired surrogates 
+    * with '?' as String.getBytes does.
+    * @return index following the encoded bytes.
+    ***************************************************************************/
+   private static int encode(final char[] chars, final int length, 
+           final byte[] bytes, int index) {
+
+      int i = 0;
+      // ASCII fast path
+      while (i < length) {
+         final char chr = chars[i];
+         if (chr >= 0x80) {
+            break;
+         }
+         bytes[index++] = (byte) chr;
+         ++i;
+      }
+      while (i < length) {
+         final char chr = chars[i++];
+         if (chr < 0x80) {
+            bytes[index++] = (byte) chr;
+         } else if (chr < 0x800) {
+            bytes[index++] = (byte) (0xC0 | chr >> 6);
+            bytes[index++] = (byte) (0x80 | chr & 0x3F);
+         } else if (!Character.isSurrogate(chr)) {
+            bytes[index++] = (byte) (0xE0 | chr >> 12);
+            bytes[index++] = (byte) (0x80 | chr >> 6 & 0x3F);
+            bytes[index++] = (byte) (0x80 | chr & 0x3F);
+         } else if (Character.isHighSurrogate(chr) && i < length
+                 && Character.isLowSurrogate(chars[i])) {
+            final int codePoint = Character.toCodePoint(chr, chars[i++]);
+            bytes[index++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[index++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[index++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[index++] = (byte) (0x80 | codePoint & 0x3F);
+         } else {
+            bytes[index++] = '?';
+         }
+      }
+      return index;
+   }
+
+   /****************************************************************************
+    * @return table of chars following the backslash in escape sequences 
+    * of ASCII chars, zero for chars written as they are.
+    ***************************************************************************/
+   private static char[] escapes() {
+
+      final char[] result = new char[128];
+      for (int i = 0; i < 0x20; ++i) {
+         result[i] = 'u';
+      }
+      result['"'] = '"';
+      result['\\'] = '\\';
+      result['/'] = '/';
+      result['\b'] = 'b';
+      result['\f'] = 'f';
+      result['\n'] = 'n';
+      result['\r'] = 'r';
+      result['\t'] = 't';
+      return result;
+   }
+
+   /****************************************************************************
+    * @return "00", "01", ... "99" concatenated.
+    ***************************************************************************/
+   private static char[] digitPairs() {
+
+      final char[] result = new char[200];
+      for (int i = 0; i < 100; ++i) {
+         result[2 * i] = (char) ('0' + i / 10);
+         result[2 * i + 1] = (char) ('0' + i % 10);
+      }
+      return result;
    }
 
    /****************************************************************************
     *
     ***************************************************************************/
-   final int[] buf = new int[22];
+   private final static int BUFFER_SIZE = 8192;
+   private final static int MAX_RETAINED_BUFFER_SIZE = 1 << 16;
+   private final static int MAX_CACHED_KEY_LENGTH = 64;
+   private final static char[] DIGIT_PAIRS = digitPairs();
+   private final static char[] ESCAPES = escapes();
+   private final static char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+   private char[] chars = new char[BUFFER_SIZE];
+   private int index;
+   private byte[] bytes = new byte[0];
+   private Object target;
+   private boolean utf8;
+   private String[] cachedKeys;
+   private char[][] encodedKeys;
+   private int keySetMask;
+   private final DoubleFormatter formatter = new DoubleFormatter();
+   /****************************************************************************
+    * Streaming writer generating one JSON value call by call into the buffer 
+    * of the generator that created it, which passes it to the output 
+    * whenever it gets full. Only a stack of nesting states is kept, 
+    * so memory use does not depend on the size of the document.
+    * Any JSON value (not only objects and arrays) is accepted at the top 
+    * level. Calls out of order, like a value without a name inside 
+    * an object, throw IllegalStateException.
+    * This class is not thread safe.
+    * @author lukasz.bownik@gmail.com
+    ***************************************************************************/
+   public final class StreamWriter implements Closeable, Flushable {
+
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private StreamWriter() {
+
+         this.stack = new int[16];
+         this.stack[0] = EMPTY_DOCUMENT;
+         this.depth = 1;
+      }
+      /*************************************************************************
+       * Writes the beginning of an object.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void beginObject() throws IOException {
+
+         beforeValue();
+         push(EMPTY_OBJECT);
+         append('{');
+      }
+      /*************************************************************************
+       * Writes the end of an object.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if there is no object to end or its 
+       * last name has no value.
+       ************************************************************************/
+      public void endObject() throws IOException {
+
+         end(EMPTY_OBJECT, NONEMPTY_OBJECT);
+         append('}');
+      }
+      /*************************************************************************
+       * Writes the beginning of an array.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void beginArray() throws IOException {
+
+         beforeValue();
+         push(EMPTY_ARRAY);
+         append('[');
+      }
+      /*************************************************************************
+       * Writes the end of an array.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if there is no array to end.
+       ************************************************************************/
+      public void endArray() throws IOException {
+
+         end(EMPTY_ARRAY, NONEMPTY_ARRAY);
+         append(']');
+      }
+      /*************************************************************************
+       * Writes a name of an object member.
+       * @param name the name.
+       * @throws IOException if output error occurs.
+       * @throws NullPointerException if name == null.
+       * @throws IllegalStateException if a name is not expected.
+       ************************************************************************/
+      public void name(final String name) throws IOException {
+
+         if (name == null) {
+            throw new NullPointerException("name");
+         }
+         final int top = top();
+         if (top == NONEMPTY_OBJECT) {
+            append(',');
+         } else if (top != EMPTY_OBJECT) {
+            throw new IllegalStateException("Name not expected.");
+         }
+         this.stack[this.depth - 1] = DANGLING_NAME;
+         generateKey(name);
+      }
+      /*************************************************************************
+       * Writes a number.
+       * @param value the number.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void value(final long value) throws IOException {
+
+         beforeValue();
+         generate(value);
+      }
+      /*************************************************************************
+       * Writes a number. Infinite and NaN values are written as null.
+       * @param value the number.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void value(final double value) throws IOException {
+
+         beforeValue();
+         if (Double.isInfinite(value) | Double.isNaN(value)) {
+            append("null");
+         } else {
+            generate(value);
+         }
+      }
+      /*************************************************************************
+       * Writes a number. Infinite and NaN values are written as null.
+       * @param value the number.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void value(final float value) throws IOException {
+
+         beforeValue();
+         if (Float.isInfinite(value) | Float.isNaN(value)) {
+            append("null");
+         } else {
+            generate(value);
+         }
+      }
+      /*************************************************************************
+       * Writes a boolean.
+       * @param value the boolean.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void value(final boolean value) throws IOException {
+
+         beforeValue();
+         append(value ? "true" : "false");
+      }
+      /*************************************************************************
+       * Writes a string.
+       * @param value the string or null.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void value(final CharSequence value) throws IOException {
+
+         beforeValue();
+         if (value == null) {
+            append("null");
+         } else {
+            append('\"');
+            generateEscaped(value.toString());
+            append('\"');
+         }
+      }
+      /*************************************************************************
+       * Writes any value accepted by Generator, including whole maps 
+       * and lists.
+       * @param value the value.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void value(final Object value) throws IOException {
+
+         beforeValue();
+         generateValue(value);
+      }
+      /*************************************************************************
+       * Writes null.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if a value is not expected.
+       ************************************************************************/
+      public void nullValue() throws IOException {
+
+         beforeValue();
+         append("null");
+      }
+      /*************************************************************************
+       * Passes the text generated so far to the output and flushes it, 
+       * if it is flushable.
+       * @throws IOException if output error occurs.
+       * @throws IllegalStateException if the writer is closed.
+       ************************************************************************/
+      @Override
+      public void flush() throws IOException {
+
+         top();
+         Generator.this.flush(true);
+         if (target instanceof Flushable) {
+            ((Flushable) target).flush();
+         }
+      }
+      /*************************************************************************
+       * Passes the remaining text to the output and closes it, if it is 
+       * closeable. The generator can be used again afterwards.
+       * @throws IOException if output error occurs or the document is 
+       * incomplete.
+       ************************************************************************/
+      @Override
+      public void close() throws IOException {
+
+         if (this.depth == 0) {
+            return;
+         }
+         final boolean complete = this.depth == 1
+               & this.stack[0] == NONEMPTY_DOCUMENT;
+         this.depth = 0;
+         final Object out = target;
+         try {
+            Generator.this.flush(true);
+         } finally {
+            target = null;
+            reset();
+         }
+         if (out instanceof Closeable) {
+            ((Closeable) out).close();
+         }
+         if (!complete) {
+            throw new IOException("Incomplete document.");
+         }
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private int top() {
+
+         if (this.depth == 0) {
+            throw new IllegalStateException("Writer closed.");
+         }
+         return this.stack[this.depth - 1];
+      }
+      /*************************************************************************
+       * Updates the state before a value writing a separator if needed.
+       ************************************************************************/
+      private void beforeValue() throws IOException {
+
+         final int top = top();
+         switch (top) {
+            case EMPTY_DOCUMENT:
+               this.stack[0] = NONEMPTY_DOCUMENT;
+               break;
+            case EMPTY_ARRAY:
+               this.stack[this.depth - 1] = NONEMPTY_ARRAY;
+               break;
+            case NONEMPTY_ARRAY:
+               append(',');
+               break;
+            case DANGLING_NAME:
+               this.stack[this.depth - 1] = NONEMPTY_OBJECT;
+               break;
+            case NONEMPTY_DOCUMENT:
+               throw new IllegalStateException("Document already written.");
+            default:
+               throw new IllegalStateException("Name expected.");
+         }
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private void end(final int empty, final int nonEmpty) {
+
+         final int top = top();
+         if (top != empty & top != nonEmpty) {
+            throw new IllegalStateException(empty == EMPTY_OBJECT 
+                  ? "No object to end." : "No array to end.");
+         }
+         --this.depth;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private void push(final int state) {
+
+         if (this.depth == this.stack.length) {
+            this.stack = copyOf(this.stack, 2 * this.depth);
+         }
+         this.stack[this.depth++] = state;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private final static int EMPTY_DOCUMENT = 0;
+      private final static int NONEMPTY_DOCUMENT = 1;
+      private final static int EMPTY_ARRAY = 2;
+      private final static int NONEMPTY_ARRAY = 3;
+      private final static int EMPTY_OBJECT = 4;
+      private final static int DANGLING_NAME = 5;
+      private final static int NONEMPTY_OBJECT = 6;
+
+      private int[] stack;
+      private int depth;
+   }
 }
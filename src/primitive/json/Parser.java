@@ -15,11 +15,41 @@ package primitive.json;
 //See the License for the specific language governing permissions and
 //limitations under the License.
 //-----------------------------------------------------------------------------
+import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.util.Arrays.copyOf;
 
 /*******************************************************************************
@@ -29,9 +59,12 @@ import static java.util.Arrays.copyOf;
  *   <ul>
  *   <li>java.util.HashMap,</li>
  *   <li>java.util.ArrayList,</li>
+ *   <li>primitive.json.LongList, primitive.json.DoubleList (optionally),</li>
  *   <li>java.lang.String,</li>
  *   <li>java.lang.Long,</li>
  *   <li>java.lang.Double,</li>
+ *   <li>primitive.json.RawNumber (optionally),</li>
+ *   <li>java.math.BigInteger, java.math.BigDecimal (optionally),</li>
  *   <li>java.lang.Boolean,</li>
  *   <li>null</li>
  *   </ul>
@@ -85,8 +118,110 @@ public final class Parser {
       this.initialVectorSize = initialVectorSize;
    }
 
+   /****************************************************************************
+    * Sets a cache of object keys. With a cache, keys equal to ones recently 
+    * parsed are returned as the same String instances, which saves 
+    * allocation and, since strings cache their hash codes, hashing by 
+    * java.util.HashMap. A cache can be shared by parsers used by different
+    * threads.
+    * @param keyCache a cache or null for no caching (the default).
+    ***************************************************************************/
+   public void setKeyCache(final StringCache keyCache) {
+
+      this.keyCache = keyCache;
+   }
+
+   /****************************************************************************
+    * Sets whether arrays consisting only of integers or only of decimal 
+    * numbers are parsed into LongList or DoubleList, which keep 
+    * the numbers unboxed in a long[] or double[]. Arrays mixing integers 
+    * and decimals or containing other values, as well as empty arrays, are 
+    * parsed into java.util.ArrayList as usual, with every number boxed in 
+    * the same way regardless of its position. Not used in raw numbers, big 
+    * numbers and fixed point modes. Applies to parse and LineReader methods.
+    * @param primitiveArrays true to enable (false by default).
+    ***************************************************************************/
+   public void setPrimitiveArrays(final boolean primitiveArrays) {
+
+      this.primitiveArrays = primitiveArrays;
+   }
+
+   /****************************************************************************
+    * Sets a cache of string values. With a cache, string values equal to 
+    * ones recently parsed are returned as the same String instances, which 
+    * reduces both allocation and the heap retained by parsed trees holding 
+    * many equal strings (like enumeration values). Only strings not longer 
+    * than the length cutoff of the cache are deduplicated, so a cache for 
+    * values should have a small one. A cache can be shared by parsers used 
+    * by different threads, but should not be shared with keys, so that 
+    * values do not evict them.
+    * @param valueCache a cache or null for no caching (the default).
+    ***************************************************************************/
+   public void setValueCache(final StringCache valueCache) {
+
+      this.valueCache = valueCache;
+   }
+
+   /****************************************************************************
+    * Sets whether numbers are returned as RawNumber, which keeps the number 
+    * text and converts it only when its value is requested. This avoids the 
+    * conversion of numbers that are never read, as well as the formatting 
+    * of numbers that are only passed to Generator, which writes them 
+    * verbatim. Primitive arrays are not used in this mode, so that every
+    * number is returned as RawNumber regardless of its array.
+    * Applies to parse, LineReader, Tokenizer and parseLazy methods.
+    * @param rawNumbers true to enable (false by default).
+    ***************************************************************************/
+   public void setRawNumbers(final boolean rawNumbers) {
+
+      this.rawNumbers = rawNumbers;
+   }
+
+   /****************************************************************************
+    * Sets whether numbers are parsed without loss of precision. Integers not 
+    * fitting in a long are returned as java.math.BigInteger, or as 
+    * java.math.BigDecimal if written with an exponent, and decimals are 
+    * returned as java.math.BigDecimal keeping all their digits. Numbers of 
+    * up to 18 significant digits are converted without parsing their text 
+    * again. Primitive arrays are not used in this mode.
+    * @param bigNumbers true to enable (false by default).
+    ***************************************************************************/
+   public void setBigNumbers(final boolean bigNumbers) {
+
+      this.bigNumbers = bigNumbers;
+   }
+
+   /****************************************************************************
+    * Sets the scale of fixed point decimals. With a non negative scale, 
+    * decimals are returned as java.lang.Long equal to the decimal multiplied 
+    * by 10^scale (e.g. 12.5 is returned as 1250 with scale 2), while integers 
+    * are returned unscaled as usual. Decimals that cannot be represented 
+    * exactly in this way, because they have more fractional digits than 
+    * scale or are out of range, as well as integers not fitting in a long, 
+    * are returned as in the big numbers mode. Primitive arrays are not used 
+    * in this mode.
+    * @param scale number of fractional digits or a negative number to 
+    * disable fixed point decimals (the default).
+    * @throws IllegalArgumentException if scale > 18.
+    ***************************************************************************/
+   public void setFixedPointScale(final int scale) {
+
+      if (scale > 18) {
+         throw new IllegalArgumentException("scale > 18");
+      }
+      this.fixedPointScale = scale < 0 ? -1 : scale;
+   }
+
    /****************************************************************************
     * Parse JSON object.
+    * The reader is consumed in blocks, so the parser may read ahead past 
+    * the end of parsed JSON value. If the reader supports marks, characters
+    * read ahead are returned to it, so on successful return it is positioned
+    * just after the parsed value. Otherwise they are retained and consumed 
+    * by the next invocation of this method with the same reader, also when 
+    * in-memory input is parsed in between, so consecutive JSON messages can 
+    * be parsed from one reader. Parsing another reader or stream discards 
+    * characters retained in this way.
     * @param reader a reader object.
     * @return java.util.Hashtable if the reader contained JSON object or 
     *    java.util.Vector if the reader contained JSON array.
@@ -99,502 +234,4416 @@ public final class Parser {
     ***************************************************************************/
    public Object parse(final Reader reader) throws IOException {
 
-      this.reader = reader;
-      try {
-         this.position = -1;
-         final int currentChar = consumeWhitespace(read());
-         switch (currentChar) {
-            case '{':
-               return parseObject();
-            case '[':
-               return parseArray();
-            default:
-               throwUnexpected(currentChar);
-               return null;
-         }
-      } finally {
-         this.reader = null;
-      }
+      setInput(reader);
+      final Object result = parseDocument();
+      unread();
+      return result;
    }
 
    /****************************************************************************
-    * Parse JSON object.
-    * @param str a JSON string.
-    * @return java.util.Hashtable if the string containes JSON object or 
-    *    java.util.Vector if the string containes JSON array.
+    * Parse UTF-8 encoded JSON object.
+    * The bytes are lexed directly, without decoding them into characters 
+    * first, and only string values are decoded when they are created.
+    * The stream is consumed in blocks, so the parser may read ahead past 
+    * the end of parsed JSON value. If the stream supports marks, bytes read
+    * ahead are returned to it, so on successful return it is positioned 
+    * just after the parsed value. Otherwise they are retained and consumed 
+    * by the next invocation of this method with the same stream, also when 
+    * in-memory input is parsed in between, so consecutive JSON messages can 
+    * be parsed from one stream. Parsing another reader or stream discards 
+    * bytes retained in this way.
+    * @param stream an input stream.
+    * @return java.util.Hashtable if the stream contained JSON object or 
+    *    java.util.Vector if the stream contained JSON array.
     * @throws IOException if input error occurs.
-    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
-    * encountered.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset.
     * @throws primitive.json.DuplicatedKeyException if JSON object with two 
     * same kays is encountered
-    * encountered.
-    * @throws NullPointerException if reader is null.
+    * @throws NullPointerException if stream is null.
     ***************************************************************************/
-   public Object parse(final String str) throws IOException {
+   public Object parse(final InputStream stream) throws IOException {
 
-      return parse(new StringReader(str));
+      setInput(stream);
+      final Object result = parseDocument();
+      unread();
+      return result;
    }
 
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON object. The array is scanned in place, so no 
+    * bytes are copied. The array must not be modified while it is being 
+    * parsed.
+    * @param bytes an array containing UTF-8 encoded JSON text.
+    * @return java.util.Hashtable if the array containes JSON object or 
+    *    java.util.Vector if the array containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if bytes is null.
     ***************************************************************************/
-   private Object parseValue(int currentChar) throws IOException {
+   public Object parse(final byte[] bytes) throws IOException {
 
-      switch (currentChar) {
-         case '{': {
-            final Object o = parseObject();
-            this.recentChar = consumeWhitespace(read());
-            return o;
-         }
-         case '[': {
-            final Object o = parseArray();
-            this.recentChar = consumeWhitespace(read());
-            return o;
-         }
-         case 't':
-            return parseTrue();
-         case 'f':
-            return parseFalse();
-         case 'n':
-            return parseNull();
-         case '-':
-         case '1':
-         case '2':
-         case '3':
-         case '4':
-         case '5':
-         case '6':
-         case '7':
-         case '8':
-         case '9':
-         case '0':
-            return parseNumber(currentChar);
-         case '"':
-            return parseString();
-         default:
-            throwUnexpected(currentChar);
-            return null;
-      }
+      return parse(bytes, 0, bytes.length);
    }
+
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON object. The array is scanned in place, so no 
+    * bytes are copied. The array must not be modified while it is being 
+    * parsed.
+    * @param bytes an array containing UTF-8 encoded JSON text.
+    * @param offset index of the first byte of JSON text.
+    * @param length number of bytes of JSON text.
+    * @return java.util.Hashtable if the array containes JSON object or 
+    *    java.util.Vector if the array containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset relative
+    * to offset.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if bytes is null.
+    * @throws IndexOutOfBoundsException if offset or length are out of 
+    * the array bounds.
     ***************************************************************************/
-   private void expect(final char expectedChar) throws IOException {
+   public Object parse(final byte[] bytes, final int offset, final int length)
+         throws IOException {
 
-      final int chr = read();
-      if (chr == -1) {
-         throw new EOFException();
+      setInput(bytes, offset, length);
+      try {
+         return parseDocument();
+      } finally {
+         releaseInput();
       }
-      if (chr != expectedChar) {
-         throwUnexpected(chr);
+   }
+
+   /****************************************************************************
+    * Parse UTF-8 encoded JSON object from remaining bytes of the buffer.
+    * Buffers backed by an accessible array are scanned in place, other 
+    * buffers are copied in blocks into the input window of the parser.
+    * On successful return the buffer position is set just after the parsed 
+    * JSON value.
+    * @param buffer a buffer containing UTF-8 encoded JSON text.
+    * @return java.util.Hashtable if the buffer containes JSON object or 
+    *    java.util.Vector if the buffer containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset relative
+    * to the buffer position.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if buffer is null.
+    ***************************************************************************/
+   public Object parse(final ByteBuffer buffer) throws IOException {
+
+      final int position = buffer.position();
+      setInput(buffer);
+      try {
+         final Object result = parseDocument();
+         buffer.position(position + (int) consumed());
+         return result;
+      } finally {
+         releaseInput();
       }
    }
+
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON file. The file is memory mapped and lexed 
+    * directly from the page cache without read system calls or character
+    * decoding.
+    * @param path a path of the file.
+    * @return java.util.Hashtable if the file containes JSON object or 
+    *    java.util.Vector if the file containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset in the 
+    * file.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if path is null.
     ***************************************************************************/
-   private int expectEndOfValue() throws IOException {
+   public Object parse(final Path path) throws IOException {
 
-      int chr = read();
-      if (!isEndOfValue(chr)) {
-         throwUnexpected(chr);
+      try (final FileChannel channel = FileChannel.open(path, READ)) {
+         return parse(channel);
       }
-      return chr;
    }
+
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON text from a file channel starting at its 
+    * current position. The file is memory mapped in sliding regions, so 
+    * files larger than 2GB are supported. On successful return the channel
+    * position is set just after the parsed JSON value.
+    * @param channel a file channel opened for reading.
+    * @return java.util.Hashtable if the file containes JSON object or 
+    *    java.util.Vector if the file containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset relative
+    * to the initial channel position.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if channel is null.
     ***************************************************************************/
-   private Boolean parseTrue() throws IOException {
+   public Object parse(final FileChannel channel) throws IOException {
 
-      expect('r');
-      expect('u');
-      expect('e');
-      this.recentChar = expectEndOfValue();
+      final long position = channel.position();
+      setInput(channel);
+      try {
+         final Object result = parseDocument();
+         channel.position(position + consumed());
+         return result;
+      } finally {
+         releaseInput();
+      }
+   }
 
-      return Boolean.TRUE;
+   /****************************************************************************
+    * Parse UTF-8 encoded JSON object in two stages.
+    * @see #parseIndexed(byte[], int, int)
+    ***************************************************************************/
+   public Object parseIndexed(final byte[] bytes) throws IOException {
+
+      return parseIndexed(bytes, 0, bytes.length);
    }
+
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON object in two stages. First an index of 
+    * structural characters of the whole text is built, classifying bytes 
+    * in long words, and then the index is walked to build the result. 
+    * Strings and scalars are decoded with the same lexer as used by 
+    * parse(byte[]), so valid input gives the same result. Validation is 
+    * stricter: members and elements not separated by commas, which 
+    * parse(byte[]) tolerates, are reported as unexpected characters. 
+    * This is usually faster for large inputs and the index is reused by 
+    * consecutive invocations.
+    * @param bytes an array containing UTF-8 encoded JSON text.
+    * @param offset index of the first byte of JSON text.
+    * @param length number of bytes of JSON text.
+    * @return java.util.Hashtable if the array containes JSON object or 
+    *    java.util.Vector if the array containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset relative
+    * to offset.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if bytes is null.
+    * @throws IndexOutOfBoundsException if offset or length are out of 
+    * the array bounds.
     ***************************************************************************/
-   private Boolean parseFalse() throws IOException {
+   public Object parseIndexed(final byte[] bytes, final int offset, 
+         final int length) throws IOException {
 
-      expect('a');
-      expect('l');
-      expect('s');
-      expect('e');
-      this.recentChar = expectEndOfValue();
+      setInput(bytes, offset, length);
+      try {
+         if (this.index == null) {
+            this.index = new StructuralIndex();
+         }
+         this.index.build(bytes, offset, length);
+         this.structural = 0;
+         return walkDocument();
+      } finally {
+         releaseInput();
+      }
+   }
 
-      return Boolean.FALSE;
+   /****************************************************************************
+    * Parse UTF-8 encoded JSON object lazily.
+    * @see #parseLazy(byte[], int, int)
+    ***************************************************************************/
+   public Object parseLazy(final byte[] bytes) throws IOException {
+
+      return parseLazy(bytes, 0, bytes.length);
    }
 
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON object lazily. The whole text is validated and
+    * its structural characters are indexed up front in the same way as by 
+    * parseIndexed, with the same stricter validation, but no values are 
+    * created. Instead read only Map and List
+    * views are returned, which decode their members into String, Long, 
+    * Double, Boolean, null or nested views only when they are first 
+    * accessed. Accessed members are cached by the views.
+    * The array must not be modified while the views are in use. The views 
+    * use a lexer of their own, so this parser can be reused immediately, 
+    * but they are not thread safe.
+    * @param bytes an array containing UTF-8 encoded JSON text.
+    * @param offset index of the first byte of JSON text.
+    * @param length number of bytes of JSON text.
+    * @return java.util.Map if the array containes JSON object or 
+    *    java.util.List if the array containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset relative
+    * to offset.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if bytes is null.
+    * @throws IndexOutOfBoundsException if offset or length are out of 
+    * the array bounds.
     ***************************************************************************/
-   private Object parseNull() throws IOException {
+   public Object parseLazy(final byte[] bytes, final int offset, 
+         final int length) throws IOException {
 
-      expect('u');
-      expect('l');
-      expect('l');
-      this.recentChar = expectEndOfValue();
+      final Parser document = new Parser(this.bufferSize, 
+            this.initialHashtableSize, this.initialVectorSize);
+      document.keyCache = this.keyCache;
+      document.valueCache = this.valueCache;
+      document.rawNumbers = this.rawNumbers;
+      document.bigNumbers = this.bigNumbers;
+      document.fixedPointScale = this.fixedPointScale;
+      document.setInput(bytes, offset, length);
+      document.index = new StructuralIndex();
+      document.index.build(bytes, offset, length);
+      document.matching = new int[document.index.count];
+      document.keySlots = new int[16];
+      final int chr = document.nextStructural();
+      switch (chr) {
+         case '{':
+            document.skipIndexedObject();
+            document.keySlots = null;
+            return new LazyObject(document, 0);
+         case '[':
+            document.skipIndexedArray();
+            document.keySlots = null;
+            return new LazyArray(document, 0);
+         default:
+            document.throwUnexpected(chr);
+            return null;
+      }
+   }
 
-      return null;
+   /****************************************************************************
+    * Parse JSON object.
+    * @param str a JSON string.
+    * @return java.util.Hashtable if the string containes JSON object or 
+    *    java.util.Vector if the string containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
+    * encountered.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * encountered.
+    * @throws NullPointerException if reader is null.
+    ***************************************************************************/
+   public Object parse(final String str) throws IOException {
+
+      return parse((CharSequence) str);
    }
 
    /****************************************************************************
-    * 
+    * Parse JSON object. The characters are copied in blocks directly into 
+    * the input window of the parser, without any Reader indirection.
+    * @param str a JSON character sequence.
+    * @return java.util.Hashtable if the sequence containes JSON object or 
+    *    java.util.Vector if the sequence containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
+    * encountered.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if str is null.
     ***************************************************************************/
-   private HashMap<String, Object> parseObject() throws IOException {
+   public Object parse(final CharSequence str) throws IOException {
 
-      final HashMap<String, Object> result = new HashMap<>(this.initialHashtableSize);
+      setInput(str);
+      try {
+         return parseDocument();
+      } finally {
+         releaseInput();
+      }
+   }
 
-      int currentChar = consumeWhitespace(read());
-      while (currentChar != '}') {
-         if (currentChar != '"') {
-            throwUnexpected(currentChar);
-         }
-         final String key = parseString();
-         currentChar = consumeWhitespace(this.recentChar);
-         if (currentChar != ':') {
-            throwUnexpected(currentChar);
-         }
-         currentChar = consumeWhitespace(read());
-         if (result.put(key, parseValue(currentChar)) != null) {
-            throw new DuplicatedKeyException(key);
-         }
-         currentChar = consumeWhitespace(this.recentChar);
-         if (currentChar == ',') {
-            currentChar = consumeWhitespace(read());
-         }
+   /****************************************************************************
+    * Parse JSON object. The array is scanned in place, so no characters are 
+    * copied. The array must not be modified while it is being parsed.
+    * @param chars an array containing JSON text.
+    * @param offset index of the first character of JSON text.
+    * @param length number of characters of JSON text.
+    * @return java.util.Hashtable if the array containes JSON object or 
+    *    java.util.Vector if the array containes JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
+    * encountered. The position of the character is relative to offset.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if chars is null.
+    * @throws IndexOutOfBoundsException if offset or length are out of 
+    * the array bounds.
+    ***************************************************************************/
+   public Object parse(final char[] chars, final int offset, final int length)
+         throws IOException {
+
+      setInput(chars, offset, length);
+      try {
+         return parseDocument();
+      } finally {
+         releaseInput();
       }
-      return result;
    }
 
    /****************************************************************************
-    * 
+    * Parse JSON object pushing its contents to a handler. No maps, lists, 
+    * strings or boxed numbers are created, strings and object keys are 
+    * passed to the handler as slices of the internal buffers of the parser.
+    * Input is read in the same way as by parse(Reader).
+    * Duplicated keys are not detected.
+    * @param reader a reader object.
+    * @param handler a handler receiving parsing events.
+    * @throws IOException if input error occurs or the handler throws it.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
+    * encountered.
+    * @throws NullPointerException if reader or handler is null.
     ***************************************************************************/
-   private ArrayList<Object> parseArray() throws IOException {
+   public void parse(final Reader reader, final Handler handler) 
+         throws IOException {
 
-      final ArrayList<Object> result = new ArrayList<>(this.initialVectorSize);
+      if (handler == null) {
+         throw new NullPointerException("handler");
+      }
+      setInput(reader);
+      handleDocument(handler);
+      unread();
+   }
 
-      int currentChar = consumeWhitespace(read());
-      if (currentChar != ']') {
-         result.add(parseValue(currentChar));
-         currentChar = consumeWhitespace(this.recentChar);
-         while (currentChar != ']') {
-            if (currentChar == ',') {
-               currentChar = consumeWhitespace(read());
-            } else {
-               throwUnexpected(currentChar);
-            }
-            result.add(parseValue(currentChar));
-            currentChar = consumeWhitespace(this.recentChar);
-         }
+   /****************************************************************************
+    * Parse UTF-8 encoded JSON object pushing its contents to a handler. 
+    * Input is read in the same way as by parse(InputStream).
+    * Duplicated keys are not detected.
+    * @param stream an input stream.
+    * @param handler a handler receiving parsing events.
+    * @throws IOException if input error occurs or the handler throws it.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset.
+    * @throws NullPointerException if stream or handler is null.
+    ***************************************************************************/
+   public void parse(final InputStream stream, final Handler handler) 
+         throws IOException {
+
+      if (handler == null) {
+         throw new NullPointerException("handler");
       }
-      return result;
+      setInput(stream);
+      handleDocument(handler);
+      unread();
    }
 
    /****************************************************************************
-    * 
+    * Parse UTF-8 encoded JSON object pushing its contents to a handler. 
+    * The array is scanned in place. Duplicated keys are not detected.
+    * @param bytes an array containing UTF-8 encoded JSON text.
+    * @param handler a handler receiving parsing events.
+    * @throws IOException if input error occurs or the handler throws it.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset.
+    * @throws NullPointerException if bytes or handler is null.
     ***************************************************************************/
-   private Object parseNumber(int currentChar) throws IOException {
+   public void parse(final byte[] bytes, final Handler handler) 
+         throws IOException {
 
-      int signum = 1;
-      long integer = 0;
-      if (currentChar == '-') {
-         signum = -1;
-         currentChar = read();
-         if (currentChar == -1) {
-            throw new EOFException();
+      if (handler == null) {
+         throw new NullPointerException("handler");
+      }
+      setInput(bytes, 0, bytes.length);
+      try {
+         handleDocument(handler);
+      } finally {
+         releaseInput();
+      }
+   }
+
+   /****************************************************************************
+    * Parse JSON object pushing its contents to a handler. 
+    * Duplicated keys are not detected.
+    * @param str a JSON character sequence.
+    * @param handler a handler receiving parsing events.
+    * @throws IOException if input error occurs or the handler throws it.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
+    * encountered.
+    * @throws NullPointerException if str or handler is null.
+    ***************************************************************************/
+   public void parse(final CharSequence str, final Handler handler) 
+         throws IOException {
+
+      if (handler == null) {
+         throw new NullPointerException("handler");
+      }
+      setInput(str);
+      try {
+         handleDocument(handler);
+      } finally {
+         releaseInput();
+      }
+   }
+
+   /****************************************************************************
+    * Parse JSON object keeping only members selected by a projection. 
+    * Everything else is validated and skipped without creating strings or 
+    * numbers. Duplicated keys are detected only among the selected members.
+    * Input is read in the same way as by parse(Reader).
+    * @param reader a reader object.
+    * @param projection paths of members to keep.
+    * @return java.util.HashMap if the reader contained JSON object or 
+    *    java.util.ArrayList if the reader contained JSON array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON is
+    * encountered.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same selected kays is encountered
+    * @throws NullPointerException if reader or projection is null.
+    ***************************************************************************/
+   public Object parse(final Reader reader, final Projection projection) 
+         throws IOException {
+
+      if (projection == null) {
+         throw new NullPointerException("projection");
+      }
+      setInput(reader);
+      final Object result = parseProjectedDocument(projection.root);
+      unread();
+      return result;
+   }
+
+   /****************************************************************************
+    * Parse UTF-8 encoded JSON object keeping only members selected by 
+    * a projection. Input is read in the same way as by parse(InputStream).
+    * @see #parse(Reader, Projection)
+    ***************************************************************************/
+   public Object parse(final InputStream stream, final Projection projection) 
+         throws IOException {
+
+      if (projection == null) {
+         throw new NullPointerException("projection");
+      }
+      setInput(stream);
+      final Object result = parseProjectedDocument(projection.root);
+      unread();
+      return result;
+   }
+
+   /****************************************************************************
+    * Parse UTF-8 encoded JSON object keeping only members selected by 
+    * a projection. The array is scanned in place.
+    * @see #parse(Reader, Projection)
+    ***************************************************************************/
+   public Object parse(final byte[] bytes, final Projection projection) 
+         throws IOException {
+
+      if (projection == null) {
+         throw new NullPointerException("projection");
+      }
+      setInput(bytes, 0, bytes.length);
+      try {
+         return parseProjectedDocument(projection.root);
+      } finally {
+         releaseInput();
+      }
+   }
+
+   /****************************************************************************
+    * Parse JSON object keeping only members selected by a projection.
+    * @see #parse(Reader, Projection)
+    ***************************************************************************/
+   public Object parse(final CharSequence str, final Projection projection) 
+         throws IOException {
+
+      if (projection == null) {
+         throw new NullPointerException("projection");
+      }
+      setInput(str);
+      try {
+         return parseProjectedDocument(projection.root);
+      } finally {
+         releaseInput();
+      }
+   }
+
+   /****************************************************************************
+    * Creates a pull tokenizer reading JSON text from a reader. 
+    * Input is read in blocks in the same way as by parse(Reader), so
+    * the tokenizer and parse(Reader) can be used alternately on the same 
+    * reader. The parser must not be used for other input until 
+    * the tokenizer is no longer needed.
+    * @param reader a reader object.
+    * @return a tokenizer.
+    * @throws NullPointerException if reader is null.
+    ***************************************************************************/
+   public Tokenizer tokenizer(final Reader reader) {
+
+      setInput(reader);
+      return new Tokenizer();
+   }
+
+   /****************************************************************************
+    * Creates a pull tokenizer reading UTF-8 encoded JSON text from a stream. 
+    * The parser must not be used for other input until the tokenizer is no 
+    * longer needed.
+    * @param stream an input stream.
+    * @return a tokenizer.
+    * @throws NullPointerException if stream is null.
+    ***************************************************************************/
+   public Tokenizer tokenizer(final InputStream stream) {
+
+      setInput(stream);
+      return new Tokenizer();
+   }
+
+   /****************************************************************************
+    * Creates a pull tokenizer reading JSON text from a character sequence. 
+    * The parser must not be used for other input until the tokenizer is no 
+    * longer needed.
+    * @param str a JSON character sequence.
+    * @return a tokenizer.
+    * @throws NullPointerException if str is null.
+    ***************************************************************************/
+   public Tokenizer tokenizer(final CharSequence str) {
+
+      setInput(str);
+      return new Tokenizer();
+   }
+
+   /****************************************************************************
+    * Creates a pull tokenizer reading UTF-8 encoded JSON text from an array. 
+    * The parser must not be used for other input until the tokenizer is no 
+    * longer needed.
+    * @param bytes an array containing UTF-8 encoded JSON text.
+    * @return a tokenizer.
+    * @throws NullPointerException if bytes is null.
+    ***************************************************************************/
+   public Tokenizer tokenizer(final byte[] bytes) {
+
+      setInput(bytes, 0, bytes.length);
+      return new Tokenizer();
+   }
+
+   /****************************************************************************
+    * Creates a reader of newline delimited JSON (JSON Lines) text. 
+    * Records are parsed directly from the input window of this parser, so 
+    * no per line strings are created. The parser must not be used for other 
+    * input until the line reader is no longer needed.
+    * @param reader a reader object.
+    * @return a line reader.
+    * @throws NullPointerException if reader is null.
+    ***************************************************************************/
+   public LineReader lines(final Reader reader) {
+
+      setInput(reader);
+      return new LineReader(reader);
+   }
+
+   /****************************************************************************
+    * Creates a reader of UTF-8 encoded newline delimited JSON (JSON Lines) 
+    * text. The parser must not be used for other input until the line 
+    * reader is no longer needed.
+    * @param stream an input stream.
+    * @return a line reader.
+    * @throws NullPointerException if stream is null.
+    ***************************************************************************/
+   public LineReader lines(final InputStream stream) {
+
+      setInput(stream);
+      return new LineReader(stream);
+   }
+
+   /****************************************************************************
+    * Creates a reader of UTF-8 encoded newline delimited JSON (JSON Lines) 
+    * file. The file is memory mapped in the same way as by parse(Path) and 
+    * stays open until the line reader is closed. The parser must not be used 
+    * for other input until the line reader is closed.
+    * @param path a path to the file.
+    * @return a line reader.
+    * @throws IOException if the file cannot be opened.
+    * @throws NullPointerException if path is null.
+    ***************************************************************************/
+   public LineReader lines(final Path path) throws IOException {
+
+      final FileChannel channel = FileChannel.open(path, READ);
+      try {
+         setInput(channel);
+      } catch (final IOException | RuntimeException e) {
+         channel.close();
+         throw e;
+      }
+      return new LineReader(channel);
+   }
+
+   /****************************************************************************
+    * Creates a reader of UTF-8 encoded newline delimited JSON (JSON Lines) 
+    * text from remaining bytes of the buffer. Buffers backed by an 
+    * accessible array are scanned in place. The parser must not be used for 
+    * other input until the line reader is no longer needed.
+    * @param buffer a buffer containing UTF-8 encoded JSON Lines text.
+    * @return a line reader.
+    * @throws NullPointerException if buffer is null.
+    ***************************************************************************/
+   public LineReader lines(final ByteBuffer buffer) {
+
+      setInput(buffer);
+      return new LineReader(null);
+   }
+
+   /****************************************************************************
+    * Parses UTF-8 encoded newline delimited JSON (JSON Lines) file in 
+    * parallel using the common fork join pool. 
+    * @see #parseLines(Path, ForkJoinPool, boolean, Consumer)
+    ***************************************************************************/
+   public static void parseLines(final Path path, final boolean ordered,
+         final Consumer<Object> consumer) throws IOException {
+
+      parseLines(path, ForkJoinPool.commonPool(), ordered, consumer);
+   }
+
+   /****************************************************************************
+    * Parses UTF-8 encoded newline delimited JSON (JSON Lines) file in 
+    * parallel. The file is split at line boundaries into chunks, which are 
+    * memory mapped and parsed by tasks of the pool, each worker thread 
+    * using its own parser. 
+    * At most two chunks per worker are submitted to the pool ahead of 
+    * the chunk whose completion the calling thread awaits.
+    * If ordered is true records are passed to the consumer in the file order 
+    * by the calling thread. Otherwise records are passed to the consumer as 
+    * soon as they are parsed by worker threads, so the consumer must be 
+    * thread safe. On the first failure of parsing or of the consumer, 
+    * the remaining chunks are cancelled, records are no longer passed to 
+    * the consumer and the failure is thrown.
+    * @param path a path to the file.
+    * @param pool a pool parsing the chunks.
+    * @param ordered whether records are to be passed in the file order.
+    * @param consumer a consumer receiving the records.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered. The position is a byte offset in the 
+    * file.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if any argument is null.
+    ***************************************************************************/
+   public static void parseLines(final Path path, final ForkJoinPool pool,
+         final boolean ordered, final Consumer<Object> consumer) 
+         throws IOException {
+
+      parseLines(path, pool, ordered, consumer, CHUNK_SIZE);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   static void parseLines(final Path path, final ForkJoinPool pool,
+         final boolean ordered, final Consumer<Object> consumer, 
+         final int chunkSize) throws IOException {
+
+      if (pool == null) {
+         throw new NullPointerException("pool");
+      }
+      if (consumer == null) {
+         throw new NullPointerException("consumer");
+      }
+      final ThreadLocal<Parser> parsers = ThreadLocal.withInitial(Parser::new);
+      final AtomicReference<Throwable> failure = new AtomicReference<>();
+      final Consumer<Object> recordConsumer = ordered ? null : record -> {
+         if (failure.get() != null) {
+            throw new CancellationException(); // stops the chunk
          }
-         if (currentChar == '.') {
-            throwUnexpected(currentChar);
+         consumer.accept(record);
+      };
+      final int maxPending = 2 * pool.getParallelism();
+      final ArrayDeque<ForkJoinTask<List<Object>>> pending = new ArrayDeque<>();
+
+      try (final FileChannel channel = FileChannel.open(path, READ)) {
+         final long size = channel.size();
+         final ByteBuffer scan = ByteBuffer.allocate(WINDOW_SIZE);
+         long start = 0;
+         while (start < size) {
+            if (failure.get() != null) {
+               throw rethrow(failure.get());
+            }
+            final long chunkStart = start;
+            final long chunkEnd = findLineEnd(channel, 
+                  Math.min(start + chunkSize, size), size, scan);
+            pending.add(pool.submit(() -> {
+               try {
+                  return parsers.get().parseChunk(channel, chunkStart, chunkEnd,
+                        recordConsumer);
+               } catch (final IOException e) {
+                  failure.compareAndSet(null, e);
+                  throw new UncheckedIOException(e);
+               } catch (final RuntimeException | Error e) {
+                  failure.compareAndSet(null, e);
+                  throw e;
+               }
+            }));
+            if (pending.size() >= maxPending) {
+               deliver(join(pending.poll(), failure), consumer);
+            }
+            start = chunkEnd;
          }
-         if (isEndOfValue(currentChar)) {
-            throwUnexpected(currentChar);
+         while (!pending.isEmpty()) {
+            deliver(join(pending.poll(), failure), consumer);
+         }
+      } finally {
+         if (!pending.isEmpty()) {
+            failure.compareAndSet(null, new CancellationException());
+            for (final ForkJoinTask<?> task : pending) {
+               task.cancel(false);
+            }
          }
       }
-      while (isDigit(currentChar)) {
-         integer = 10 * integer + (currentChar - '0');
-         currentChar = read();
-      }
-      if (isEndOfValue(currentChar)) {
-         // integer - no exponent
-         this.recentChar = currentChar;
-         return integer * signum;
-      } else if (currentChar == '.') {
-         // floating point
-         currentChar = read();
-         if (currentChar == -1) {
-            throw new EOFException();
+   }
+
+   /****************************************************************************
+    * Parses UTF-8 encoded JSON array in parallel. 
+    * @see #parseArray(ByteBuffer, ForkJoinPool)
+    ***************************************************************************/
+   public static ArrayList<Object> parseArray(final byte[] bytes,
+         final ForkJoinPool pool) throws IOException {
+
+      return parseArray(ByteBuffer.wrap(bytes), pool);
+   }
+
+   /****************************************************************************
+    * Parses UTF-8 encoded JSON array file in parallel. The file is memory 
+    * mapped as a whole, so it must not be larger than 2GB.
+    * @see #parseArray(ByteBuffer, ForkJoinPool)
+    ***************************************************************************/
+   public static ArrayList<Object> parseArray(final Path path,
+         final ForkJoinPool pool) throws IOException {
+
+      try (final FileChannel channel = FileChannel.open(path, READ)) {
+         final long size = channel.size();
+         if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("File larger than 2GB.");
          }
-         if (!isDigit(currentChar)) {
-            throwUnexpected(currentChar);
+         return parseArray(channel.map(READ_ONLY, 0, size), pool);
+      }
+   }
+
+   /****************************************************************************
+    * Parses UTF-8 encoded JSON array from remaining bytes of the buffer in 
+    * parallel. The top level array is first scanned for its element 
+    * boundaries, tracking only nesting depth and strings, without 
+    * validating or creating anything. Consecutive elements are then grouped 
+    * into chunks, which are parsed by tasks of the pool, each worker thread 
+    * using its own parser. The result is the same as the one returned by 
+    * parse for the array.
+    * @param buffer a buffer containing UTF-8 encoded JSON array.
+    * @param pool a pool parsing the chunks.
+    * @return java.util.ArrayList containing elements of the array.
+    * @throws IOException if input error occurs.
+    * @throws primitive.json.UnexpectedCharacterException if malformed JSON or 
+    * malformed UTF-8 is encountered, or the input is not an array. 
+    * The position is a byte offset relative to the buffer position.
+    * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+    * same kays is encountered
+    * @throws NullPointerException if any argument is null.
+    ***************************************************************************/
+   public static ArrayList<Object> parseArray(final ByteBuffer buffer,
+         final ForkJoinPool pool) throws IOException {
+
+      return parseArray(buffer, pool, CHUNK_SIZE);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   static ArrayList<Object> parseArray(final ByteBuffer buffer,
+         final ForkJoinPool pool, final int chunkSize) throws IOException {
+
+      if (pool == null) {
+         throw new NullPointerException("pool");
+      }
+      final ByteBuffer input = buffer.slice();
+      final ArrayDeque<ForkJoinTask<List<Object>>> pending = new ArrayDeque<>();
+      try {
+         final int count = scanArray(input, chunkSize, pool, pending);
+         final ArrayList<Object> result = new ArrayList<>(count);
+         while (!pending.isEmpty()) {
+            result.addAll(join(pending.poll()));
          }
-         double decimal = 0.1 * (currentChar - '0');
-         double factor = 0.01;
-         currentChar = read();
-         while (isDigit(currentChar)) {
-            decimal += factor * (currentChar - '0');
-            factor /= 10;
-            currentChar = read();
+         return result;
+      } finally {
+         for (final ForkJoinTask<?> task : pending) {
+            task.cancel(false);
          }
-         if (currentChar == 'e' | currentChar == 'E') {
-            // floating point with exponent
-            currentChar = read();
-            int expSignum = 1;
-            if (currentChar == '-') {
-               expSignum = -1;
-               currentChar = read();
+      }
+   }
+
+   /****************************************************************************
+    * Scans top level array for its element boundaries and submits parsing 
+    * of chunks of elements to the pool as soon as they are found. 
+    * @return number of elements of the array.
+    ***************************************************************************/
+   private static int scanArray(final ByteBuffer input, final int chunkSize,
+         final ForkJoinPool pool, final ArrayDeque<ForkJoinTask<List<Object>>> pending)
+         throws IOException {
+
+      final ThreadLocal<Parser> parsers = ThreadLocal.withInitial(Parser::new);
+      final int length = input.limit();
+      int index = 0;
+      while (index < length && isWhitespace(input.get(index))) {
+         ++index;
+      }
+      if (index == length) {
+         throw new EOFException();
+      }
+      if (input.get(index) != '[') {
+         throw new UnexpectedCharacterException(index, (char) (input.get(index) & 0xFF));
+      }
+      int chunkStart = ++index;
+      int count = 0;
+      int depth = 0;
+      boolean empty = true;
+      while (index < length) {
+         final byte b = input.get(index);
+         if (b == '"') {
+            // skip the string, the escaped characters including
+            ++index;
+            while (index < length && input.get(index) != '"') {
+               if (input.get(index) == '\\') {
+                  ++index;
+               }
+               ++index;
             }
-            if (currentChar == '+') {
-               currentChar = read();
+            empty = false;
+         } else if (b == '{' | b == '[') {
+            ++depth;
+            empty = false;
+         } else if (b == '}' | b == ']') {
+            if (depth > 0) {
+               --depth;
+            } else if (b == ']' & (!empty | count == 0)) {
+               if (!empty) {
+                  ++count;
+               }
+               submitChunk(input, chunkStart, index, pool, parsers, pending);
+               return count;
+            } else {
+               throw new UnexpectedCharacterException(index, (char) b);
             }
-            if (currentChar == -1) {
-               throw new EOFException();
+         } else if (b == ',' & depth == 0) {
+            if (empty) {
+               throw new UnexpectedCharacterException(index, ',');
             }
-            if (!isDigit(currentChar)) {
-               throwUnexpected(currentChar);
+            ++count;
+            if (index - chunkStart >= chunkSize) {
+               submitChunk(input, chunkStart, index, pool, parsers, pending);
+               chunkStart = index + 1;
             }
-            long exponent = (currentChar - '0');
-            currentChar = read();
-            while (isDigit(currentChar)) {
-               exponent = 10 * exponent + (currentChar - '0');
-               currentChar = read();
+            empty = true;
+         } else if (!isWhitespace(b)) {
+            empty = false;
+         }
+         ++index;
+      }
+      throw new EOFException();
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static void submitChunk(final ByteBuffer input, final int start,
+         final int end, final ForkJoinPool pool,
+         final ThreadLocal<Parser> parsers,
+         final ArrayDeque<ForkJoinTask<List<Object>>> pending) {
+
+      final ByteBuffer chunk = input.duplicate();
+      chunk.limit(end).position(start);
+      pending.add(pool.submit(() -> {
+         try {
+            return parsers.get().parseElements(chunk, start);
+         } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }));
+   }
+
+   /****************************************************************************
+    * Parses comma separated elements of an array.
+    * @param offset offset of the elements in the whole input.
+    ***************************************************************************/
+   private List<Object> parseElements(final ByteBuffer chunk, final int offset) 
+         throws IOException {
+
+      final ArrayList<Object> result = new ArrayList<>();
+      setInput(chunk);
+      try {
+         int chr = read();
+         while (isWhitespace(chr)) {
+            chr = read();
+         }
+         while (chr != -1) {
+            result.add(parseRootValue(chr));
+            chr = this.recentChar;
+            while (isWhitespace(chr)) {
+               chr = read();
             }
-            if (isEndOfValue(currentChar)) {
-               this.recentChar = currentChar;
-               if (expSignum > 0) {
-                  return (integer + decimal) * signum * pow(exponent);
-               } else {
-                  return (integer + decimal) * signum / pow(exponent);
+            if (chr != -1) {
+               if (chr != ',') {
+                  throwUnexpected(chr);
                }
+               chr = consumeWhitespace(read());
             }
-            throwUnexpected(currentChar);
-         } else {
-            // floating point without exponent
-            if (isEndOfValue(currentChar)) {
-               this.recentChar = currentChar;
-               return (integer + decimal) * signum;
+         }
+         return result;
+      } catch (final UnexpectedCharacterException e) {
+         throw new UnexpectedCharacterException(offset + e.position, e.character);
+      } finally {
+         releaseInput();
+      }
+   }
+
+   /****************************************************************************
+    * Parses one chunk of JSON Lines file.
+    * @return parsed records or null if they were passed to the consumer.
+    ***************************************************************************/
+   private List<Object> parseChunk(final FileChannel channel, final long start,
+         final long end, final Consumer<Object> consumer) throws IOException {
+
+      final List<Object> records = consumer == null ? new ArrayList<>() : null;
+      final LineReader lines = lines(channel.map(READ_ONLY, start, end - start));
+      try {
+         while (lines.hasNext()) {
+            final Object record = lines.next();
+            if (records != null) {
+               records.add(record);
+            } else {
+               consumer.accept(record);
+            }
+         }
+      } catch (final UnexpectedCharacterException e) {
+         throw new UnexpectedCharacterException(start + e.position, e.character);
+      } finally {
+         lines.close();
+      }
+      return records;
+   }
+
+   /****************************************************************************
+    * @return position just after the first new line character at or after 
+    * the given position, or size if there is none.
+    ***************************************************************************/
+   private static long findLineEnd(final FileChannel channel, long position,
+         final long size, final ByteBuffer scan) throws IOException {
+
+      while (position < size) {
+         scan.clear();
+         final int count = channel.read(scan, position);
+         if (count < 0) {
+            break;
+         }
+         for (int i = 0; i < count; ++i) {
+            if (scan.get(i) == '\n') {
+               return position + i + 1;
+            }
+         }
+         position += count;
+      }
+      return size;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static List<Object> join(final ForkJoinTask<List<Object>> task)
+         throws IOException {
+
+      try {
+         return task.get();
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException();
+      } catch (final ExecutionException e) {
+         throw rethrow(e.getCause());
+      }
+   }
+
+   /****************************************************************************
+    * Joins a task of a group which records its first failure. A task 
+    * stopped because of a failure of another one reports that failure.
+    ***************************************************************************/
+   private static List<Object> join(final ForkJoinTask<List<Object>> task,
+         final AtomicReference<Throwable> failure) throws IOException {
+
+      try {
+         return join(task);
+      } catch (final RuntimeException | IOException e) {
+         final Throwable first = failure.get();
+         if (first != null && first != e) {
+            throw rethrow(first);
+         }
+         throw e;
+      }
+   }
+
+   /****************************************************************************
+    * Throws an unchecked failure of a task as it is.
+    * @return checked failure of a task to be thrown by the caller.
+    ***************************************************************************/
+   private static IOException rethrow(final Throwable failure) {
+
+      for (Throwable t = failure; t != null; t = t.getCause()) {
+         if (t instanceof UncheckedIOException) {
+            return ((UncheckedIOException) t).getCause();
+         }
+      }
+      if (failure instanceof IOException) {
+         return (IOException) failure;
+      }
+      if (failure instanceof RuntimeException) {
+         throw (RuntimeException) failure;
+      }
+      if (failure instanceof Error) {
+         throw (Error) failure;
+      }
+      return new IOException(failure);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static void deliver(final List<Object> records,
+         final Consumer<Object> consumer) {
+
+      if (records != null) {
+         for (final Object record : records) {
+            consumer.accept(record);
+         }
+      }
+   }
+
+   /****************************************************************************
+    * Sets a reader as the input. If the reader is the one used recently,
+    * possibly before in-memory input, the characters read ahead so far 
+    * are retained.
+    ***************************************************************************/
+   private void setInput(final Reader reader) {
+
+      if (reader == null) {
+         throw new NullPointerException("reader");
+      }
+      if (reader != this.reader) {
+         if (this.readerWindow == null) {
+            this.readerWindow = new char[WINDOW_SIZE];
+         }
+         final boolean resumed = reader == this.parked;
+         final int index = this.parkedIndex;
+         final int length = this.parkedLength;
+         releaseStreams();
+         this.reader = reader;
+         this.input = this.readerWindow;
+         if (resumed) {
+            this.inputIndex = index;
+            this.inputLength = length;
+         }
+      }
+      this.inputBase = -this.inputIndex;
+   }
+
+   /****************************************************************************
+    * Sets a stream as the input. If the stream is the one used recently,
+    * possibly before in-memory input, the bytes read ahead so far are 
+    * retained.
+    ***************************************************************************/
+   private void setInput(final InputStream stream) {
+
+      if (stream == null) {
+         throw new NullPointerException("stream");
+      }
+      if (stream != this.stream) {
+         if (this.streamWindow == null) {
+            this.streamWindow = new byte[WINDOW_SIZE];
+         }
+         final boolean resumed = stream == this.parked;
+         final int index = this.parkedIndex;
+         final int length = this.parkedLength;
+         releaseStreams();
+         this.stream = stream;
+         this.bytes = this.streamWindow;
+         if (resumed) {
+            this.inputIndex = index;
+            this.inputLength = length;
+         }
+      }
+      this.inputBase = -this.inputIndex;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void setInput(final byte[] bytes, final int offset, final int length) {
+
+      if (offset < 0 | length < 0 | offset > bytes.length - length) {
+         throw new IndexOutOfBoundsException("offset: " + offset + ", length: "
+               + length);
+      }
+      parkStreams();
+      this.bytes = bytes;
+      this.inputIndex = offset;
+      this.inputLength = offset + length;
+      this.inputBase = -offset;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void setInput(final ByteBuffer buffer) {
+
+      parkStreams();
+      if (buffer.hasArray()) {
+         final int offset = buffer.arrayOffset() + buffer.position();
+         this.bytes = buffer.array();
+         this.inputIndex = offset;
+         this.inputLength = offset + buffer.remaining();
+         this.inputBase = -offset;
+      } else {
+         if (this.byteWindow == null) {
+            this.byteWindow = new byte[WINDOW_SIZE];
+         }
+         this.source = buffer;
+         this.bytes = this.byteWindow;
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void setInput(final FileChannel channel) throws IOException {
+
+      final long position = channel.position();
+      if (this.byteWindow == null) {
+         this.byteWindow = new byte[WINDOW_SIZE];
+      }
+      parkStreams();
+      this.channel = channel;
+      this.mappingEnd = position;
+      this.mappingLimit = channel.size();
+      this.bytes = this.byteWindow;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void setInput(final CharSequence str) {
+
+      if (str == null) {
+         throw new NullPointerException("str");
+      }
+      if (this.window == null) {
+         this.window = new char[WINDOW_SIZE];
+      }
+      parkStreams();
+      this.sequence = str;
+      this.sequenceIndex = 0;
+      this.sequenceLength = str.length();
+      this.input = this.window;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void setInput(final char[] chars, final int offset, final int length) {
+
+      if (offset < 0 | length < 0 | offset > chars.length - length) {
+         throw new IndexOutOfBoundsException("offset: " + offset + ", length: "
+               + length);
+      }
+      parkStreams();
+      this.input = chars;
+      this.inputIndex = offset;
+      this.inputLength = offset + length;
+      this.inputBase = -offset;
+   }
+
+   /****************************************************************************
+    * Forgets recently used reader or stream together with the input read 
+    * ahead from it.
+    ***************************************************************************/
+   private void releaseStreams() {
+
+      this.reader = null;
+      this.stream = null;
+      this.parked = null;
+      releaseInput();
+   }
+
+   /****************************************************************************
+    * Puts aside recently used reader or stream together with the position 
+    * in the input read ahead from it, so that it can be resumed after 
+    * in-memory input is parsed.
+    ***************************************************************************/
+   private void parkStreams() {
+
+      if (this.reader != null | this.stream != null) {
+         this.parked = this.reader != null ? this.reader : this.stream;
+         this.parkedIndex = this.inputIndex;
+         this.parkedLength = this.inputLength;
+         this.reader = null;
+         this.stream = null;
+      }
+      releaseInput();
+   }
+
+   /****************************************************************************
+    * Returns the characters or bytes read ahead and not consumed to 
+    * the reader or stream, if it supports marks, so that it is positioned 
+    * just after the consumed input. The mark is set before each block is 
+    * read, so the reader is reset to the beginning of the current block 
+    * and the consumed part of the block is read again.
+    ***************************************************************************/
+   private void unread() throws IOException {
+
+      int remaining = this.inputIndex;
+      if (remaining == this.inputLength) {
+         return;
+      }
+      if (this.reader != null && this.reader.markSupported()) {
+         this.reader.reset();
+         while (remaining > 0) {
+            final int count = this.reader.read(this.input, 0, remaining);
+            if (count < 0) {
+               break;
+            }
+            remaining -= count;
+         }
+      } else if (this.stream != null && this.stream.markSupported()) {
+         this.stream.reset();
+         while (remaining > 0) {
+            final int count = this.stream.read(this.bytes, 0, remaining);
+            if (count < 0) {
+               break;
+            }
+            remaining -= count;
+         }
+      } else {
+         return;
+      }
+      this.inputIndex = 0;
+      this.inputLength = 0;
+   }
+
+   /****************************************************************************
+    * Drops references to in-memory input, so it can be garbage collected.
+    * Readers and streams are retained together with the input read ahead.
+    ***************************************************************************/
+   private void releaseInput() {
+
+      if (this.reader == null & this.stream == null) {
+         this.sequence = null;
+         this.source = null;
+         this.channel = null;
+         this.input = this.window;
+         this.bytes = null;
+         this.inputIndex = 0;
+         this.inputLength = 0;
+         this.inputBase = 0;
+      }
+   }
+
+   /****************************************************************************
+    * @return number of characters or bytes consumed since the input was set.
+    ***************************************************************************/
+   private long consumed() {
+
+      return this.inputBase + this.inputIndex;
+   }
+
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Object parseDocument() throws IOException {
+
+      final int currentChar = consumeWhitespace(read());
+      switch (currentChar) {
+         case '{':
+            return parseObject();
+         case '[':
+            return parseArray();
+         default:
+            throwUnexpected(currentChar);
+            return null;
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Object parseValue(int currentChar) throws IOException {
+
+      switch (currentChar) {
+         case '{': {
+            final Object o = parseObject();
+            this.recentChar = consumeWhitespace(read());
+            return o;
+         }
+         case '[': {
+            final Object o = parseArray();
+            this.recentChar = consumeWhitespace(read());
+            return o;
+         }
+         case 't':
+            return parseTrue();
+         case 'f':
+            return parseFalse();
+         case 'n':
+            return parseNull();
+         case '-':
+         case '1':
+         case '2':
+         case '3':
+         case '4':
+         case '5':
+         case '6':
+         case '7':
+         case '8':
+         case '9':
+         case '0':
+            return parseNumber(currentChar);
+         case '"':
+            return parseString();
+         default:
+            throwUnexpected(currentChar);
+            return null;
+      }
+   }
+   /****************************************************************************
+    * Parses a value which is not nested in any other value. Unlike 
+    * parseValue, whitespace following an object or array is not consumed,
+    * so the character just after the value is left in recentChar.
+    ***************************************************************************/
+   private Object parseRootValue(final int currentChar) throws IOException {
+
+      final Object result;
+      switch (currentChar) {
+         case '{':
+            result = parseObject();
+            this.recentChar = read();
+            return result;
+         case '[':
+            result = parseArray();
+            this.recentChar = read();
+            return result;
+         default:
+            return parseValue(currentChar);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void expect(final char expectedChar) throws IOException {
+
+      final int chr = read();
+      if (chr == -1) {
+         throw new EOFException();
+      }
+      if (chr != expectedChar) {
+         throwUnexpected(chr);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private int expectEndOfValue() throws IOException {
+
+      int chr = read();
+      if (!isEndOfValue(chr)) {
+         throwUnexpected(chr);
+      }
+      return chr;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Boolean parseTrue() throws IOException {
+
+      expect('r');
+      expect('u');
+      expect('e');
+      this.recentChar = expectEndOfValue();
+
+      return Boolean.TRUE;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Boolean parseFalse() throws IOException {
+
+      expect('a');
+      expect('l');
+      expect('s');
+      expect('e');
+      this.recentChar = expectEndOfValue();
+
+      return Boolean.FALSE;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Object parseNull() throws IOException {
+
+      expect('u');
+      expect('l');
+      expect('l');
+      this.recentChar = expectEndOfValue();
+
+      return null;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private HashMap<String, Object> parseObject() throws IOException {
+
+      final HashMap<String, Object> result = new HashMap<>(this.initialHashtableSize);
+
+      int currentChar = consumeWhitespace(read());
+      while (currentChar != '}') {
+         if (currentChar != '"') {
+            throwUnexpected(currentChar);
+         }
+         final String key = parseKey();
+         currentChar = consumeWhitespace(this.recentChar);
+         if (currentChar != ':') {
+            throwUnexpected(currentChar);
+         }
+         currentChar = consumeWhitespace(read());
+         if (result.put(key, parseValue(currentChar)) != null) {
+            throw new DuplicatedKeyException(key);
+         }
+         currentChar = consumeWhitespace(this.recentChar);
+         if (currentChar == ',') {
+            currentChar = consumeWhitespace(read());
+         }
+      }
+      return result;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private List<Object> parseArray() throws IOException {
+
+      final int currentChar = consumeWhitespace(read());
+      if (this.primitiveArrays & (currentChar == '-' | isDigit(currentChar))
+            & !this.rawNumbers & !this.bigNumbers & this.fixedPointScale < 0) {
+         return parseNumericArray(currentChar);
+      }
+      final ArrayList<Object> result = new ArrayList<>(this.initialVectorSize);
+      if (currentChar != ']') {
+         result.add(parseValue(currentChar));
+         parseNextElements(result);
+      }
+      return result;
+   }
+
+   /****************************************************************************
+    * Parses elements of an array following the one just parsed.
+    ***************************************************************************/
+   private void parseNextElements(final ArrayList<Object> result) 
+         throws IOException {
+
+      int currentChar = consumeWhitespace(this.recentChar);
+      while (currentChar != ']') {
+         if (currentChar == ',') {
+            currentChar = consumeWhitespace(read());
+         } else {
+            throwUnexpected(currentChar);
+         }
+         result.add(parseValue(currentChar));
+         currentChar = consumeWhitespace(this.recentChar);
+      }
+   }
+
+   /****************************************************************************
+    * Parses an array starting with a number into a LongList or DoubleList 
+    * as long as all its elements are integers or all are decimals. 
+    * Otherwise the numbers parsed so far are boxed and the array is parsed 
+    * into an ArrayList.
+    ***************************************************************************/
+   private List<Object> parseNumericArray(int currentChar) throws IOException {
+
+      final boolean integers = scanNumber(currentChar);
+      long[] longs = null;
+      double[] doubles = null;
+      int size = 0;
+      if (integers) {
+         longs = new long[this.initialVectorSize];
+         longs[size++] = this.integerValue;
+      } else {
+         doubles = new double[this.initialVectorSize];
+         doubles[size++] = this.decimalValue;
+      }
+      currentChar = consumeWhitespace(this.recentChar);
+      while (currentChar != ']') {
+         if (currentChar == ',') {
+            currentChar = consumeWhitespace(read());
+         } else {
+            throwUnexpected(currentChar);
+         }
+         final boolean number = currentChar == '-' | isDigit(currentChar);
+         if (number && scanNumber(currentChar) == integers) {
+            if (integers) {
+               if (size == longs.length) {
+                  longs = copyOf(longs, size * 2);
+               }
+               longs[size++] = this.integerValue;
+            } else {
+               if (size == doubles.length) {
+                  doubles = copyOf(doubles, size * 2);
+               }
+               doubles[size++] = this.decimalValue;
+            }
+            currentChar = consumeWhitespace(this.recentChar);
+         } else {
+            // types mix - fall back to the generic form
+            final ArrayList<Object> result = new ArrayList<>(Math.max(size * 2,
+                  this.initialVectorSize));
+            for (int i = 0; i < size; ++i) {
+               result.add(integers ? (Object) longs[i] : (Object) doubles[i]);
+            }
+            if (number) {
+               result.add(integers ? (Object) this.decimalValue 
+                     : (Object) this.integerValue);
+            } else {
+               result.add(parseValue(currentChar));
+            }
+            parseNextElements(result);
+            return result;
+         }
+      }
+      return integers ? new LongList(longs, size) : new DoubleList(doubles, size);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void handleDocument(final Handler handler) throws IOException {
+
+      final int currentChar = consumeWhitespace(read());
+      switch (currentChar) {
+         case '{':
+            handleObject(handler);
+            break;
+         case '[':
+            handleArray(handler);
+            break;
+         default:
+            throwUnexpected(currentChar);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void handleValue(final int currentChar, final Handler handler) 
+         throws IOException {
+
+      switch (currentChar) {
+         case '{':
+            handleObject(handler);
+            this.recentChar = consumeWhitespace(read());
+            break;
+         case '[':
+            handleArray(handler);
+            this.recentChar = consumeWhitespace(read());
+            break;
+         case 't':
+            parseTrue();
+            handler.value(true);
+            break;
+         case 'f':
+            parseFalse();
+            handler.value(false);
+            break;
+         case 'n':
+            parseNull();
+            handler.nullValue();
+            break;
+         case '-':
+         case '1':
+         case '2':
+         case '3':
+         case '4':
+         case '5':
+         case '6':
+         case '7':
+         case '8':
+         case '9':
+         case '0':
+            if (scanNumber(currentChar)) {
+               handler.value(this.integerValue);
+            } else {
+               handler.value(this.decimalValue);
+            }
+            break;
+         case '"':
+            scanString();
+            toCharSlice();
+            handler.value(this.sliceChars, this.sliceOffset, this.sliceLength);
+            this.recentChar = read();
+            break;
+         default:
+            throwUnexpected(currentChar);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void handleObject(final Handler handler) throws IOException {
+
+      handler.startObject();
+      int currentChar = consumeWhitespace(read());
+      while (currentChar != '}') {
+         if (currentChar != '"') {
+            throwUnexpected(currentChar);
+         }
+         scanString();
+         toCharSlice();
+         handler.key(this.sliceChars, this.sliceOffset, this.sliceLength);
+         currentChar = consumeWhitespace(read());
+         if (currentChar != ':') {
+            throwUnexpected(currentChar);
+         }
+         currentChar = consumeWhitespace(read());
+         handleValue(currentChar, handler);
+         currentChar = consumeWhitespace(this.recentChar);
+         if (currentChar == ',') {
+            currentChar = consumeWhitespace(read());
+         }
+      }
+      handler.endObject();
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void handleArray(final Handler handler) throws IOException {
+
+      handler.startArray();
+      int currentChar = consumeWhitespace(read());
+      if (currentChar != ']') {
+         handleValue(currentChar, handler);
+         currentChar = consumeWhitespace(this.recentChar);
+         while (currentChar != ']') {
+            if (currentChar == ',') {
+               currentChar = consumeWhitespace(read());
+            } else {
+               throwUnexpected(currentChar);
+            }
+            handleValue(currentChar, handler);
+            currentChar = consumeWhitespace(this.recentChar);
+         }
+      }
+      handler.endArray();
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Object walkDocument() throws IOException {
+
+      final int chr = nextStructural();
+      switch (chr) {
+         case '{':
+            return walkObject();
+         case '[':
+            return walkArray();
+         default:
+            throwUnexpected(chr);
+            return null;
+      }
+   }
+
+   /****************************************************************************
+    * Creates a value starting at a structural character which was just read.
+    * Scalars are lexed from the character on.
+    ***************************************************************************/
+   private Object walkValue(final int currentChar) throws IOException {
+
+      switch (currentChar) {
+         case '{':
+            return walkObject();
+         case '[':
+            return walkArray();
+         default:
+            return parseValue(currentChar);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private HashMap<String, Object> walkObject() throws IOException {
+
+      final HashMap<String, Object> result = new HashMap<>(this.initialHashtableSize);
+
+      int currentChar = nextStructural();
+      if (currentChar == '}') {
+         return result;
+      }
+      for (;;) {
+         if (currentChar != '"') {
+            throwUnexpected(currentChar);
+         }
+         final String key = parseKey();
+         currentChar = nextStructural();
+         if (currentChar != ':') {
+            throwUnexpected(currentChar);
+         }
+         if (result.put(key, walkValue(nextStructural())) != null) {
+            throw new DuplicatedKeyException(key);
+         }
+         currentChar = nextStructural();
+         if (currentChar == '}') {
+            return result;
+         }
+         if (currentChar != ',') {
+            throwUnexpected(currentChar);
+         }
+         currentChar = nextStructural();
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private ArrayList<Object> walkArray() throws IOException {
+
+      final ArrayList<Object> result = new ArrayList<>(this.initialVectorSize);
+
+      int currentChar = nextStructural();
+      if (currentChar == ']') {
+         return result;
+      }
+      for (;;) {
+         result.add(walkValue(currentChar));
+         currentChar = nextStructural();
+         if (currentChar == ']') {
+            return result;
+         }
+         if (currentChar != ',') {
+            throwUnexpected(currentChar);
+         }
+         currentChar = nextStructural();
+      }
+   }
+
+   /****************************************************************************
+    * Validates a value starting at a structural character which was just 
+    * read, without creating it.
+    ***************************************************************************/
+   private void skipIndexedValue(final int currentChar) throws IOException {
+
+      switch (currentChar) {
+         case '{':
+            skipIndexedObject();
+            break;
+         case '[':
+            skipIndexedArray();
+            break;
+         case '"':
+            skipString();
+            break;
+         case 't':
+            parseTrue();
+            break;
+         case 'f':
+            parseFalse();
+            break;
+         case 'n':
+            parseNull();
+            break;
+         case '-':
+         case '1':
+         case '2':
+         case '3':
+         case '4':
+         case '5':
+         case '6':
+         case '7':
+         case '8':
+         case '9':
+         case '0':
+            scanNumber(currentChar);
+            break;
+         default:
+            throwUnexpected(currentChar);
+      }
+   }
+
+   /****************************************************************************
+    * Validates an object recording the slot of its closing brace.
+    ***************************************************************************/
+   private void skipIndexedObject() throws IOException {
+
+      final int open = this.structural - 1;
+      final int firstKey = this.keyCount;
+      int currentChar = nextStructural();
+      if (currentChar != '}') {
+         for (;;) {
+            if (currentChar != '"') {
+               throwUnexpected(currentChar);
+            }
+            if (this.keyCount == this.keySlots.length) {
+               this.keySlots = copyOf(this.keySlots, this.keyCount * 2);
+            }
+            this.keySlots[this.keyCount++] = this.structural - 1;
+            skipString();
+            currentChar = nextStructural();
+            if (currentChar != ':') {
+               throwUnexpected(currentChar);
+            }
+            skipIndexedValue(nextStructural());
+            currentChar = nextStructural();
+            if (currentChar == '}') {
+               break;
+            }
+            if (currentChar != ',') {
+               throwUnexpected(currentChar);
+            }
+            currentChar = nextStructural();
+         }
+      }
+      checkDuplicatedKeys(firstKey);
+      this.keyCount = firstKey;
+      this.matching[open] = this.structural - 1;
+   }
+
+   /****************************************************************************
+    * Validates an array recording the slot of its closing bracket.
+    ***************************************************************************/
+   private void skipIndexedArray() throws IOException {
+
+      final int open = this.structural - 1;
+      int currentChar = nextStructural();
+      if (currentChar != ']') {
+         for (;;) {
+            skipIndexedValue(currentChar);
+            currentChar = nextStructural();
+            if (currentChar == ']') {
+               break;
+            }
+            if (currentChar != ',') {
+               throwUnexpected(currentChar);
+            }
+            currentChar = nextStructural();
+         }
+      }
+      this.matching[open] = this.structural - 1;
+   }
+
+   /****************************************************************************
+    * Checks keys of an object, which slots are on the key stack from 
+    * the given index on. Small objects are checked pairwise without 
+    * decoding the keys.
+    ***************************************************************************/
+   private void checkDuplicatedKeys(final int firstKey) throws IOException {
+
+      final int[] keys = this.keySlots;
+      final int count = this.keyCount;
+      if (count - firstKey <= 16) {
+         for (int i = firstKey + 1; i < count; ++i) {
+            for (int j = firstKey; j < i; ++j) {
+               if (keyEquals(keys[i], keys[j])) {
+                  throw new DuplicatedKeyException(indexedKey(keys[i]));
+               }
+            }
+         }
+      } else {
+         final HashSet<String> names = new HashSet<>(2 * (count - firstKey));
+         for (int i = firstKey; i < count; ++i) {
+            final String key = indexedKey(keys[i]);
+            if (!names.add(key)) {
+               throw new DuplicatedKeyException(key);
+            }
+         }
+      }
+   }
+
+   /****************************************************************************
+    * Compares two validated strings. Strings without escapes are compared 
+    * byte by byte, since UTF-8 encoding of a string is unique.
+    ***************************************************************************/
+   private boolean keyEquals(final int slot1, final int slot2) throws IOException {
+
+      final byte[] bytes = this.bytes;
+      int index1 = this.index.positions[slot1] + 1;
+      int index2 = this.index.positions[slot2] + 1;
+      for (;;) {
+         final byte b1 = bytes[index1++];
+         final byte b2 = bytes[index2++];
+         if (b1 == '\\' | b2 == '\\') {
+            return indexedKey(slot1).equals(indexedKey(slot2));
+         }
+         if (b1 != b2) {
+            return false;
+         }
+         if (b1 == '"') {
+            return true;
+         }
+      }
+   }
+
+   /****************************************************************************
+    * Compares a validated string with a given one without decoding it if 
+    * possible.
+    ***************************************************************************/
+   private boolean keyEquals(final int slot, final String key) throws IOException {
+
+      final byte[] bytes = this.bytes;
+      final int length = key.length();
+      final int end = this.inputLength;
+      int index = this.index.positions[slot] + 1;
+      for (int i = 0; i < length; ++i, ++index) {
+         if (index >= end) {
+            return false;
+         }
+         final byte b = bytes[index];
+         if (b == '\\' | b < 0) {
+            return key.equals(indexedKey(slot));
+         }
+         if (b != key.charAt(i) | b == '"') {
+            return false; // the key differs or is shorter
+         }
+      }
+      return index < end && bytes[index] == '"';
+   }
+
+   /****************************************************************************
+    * @return validated key starting at a given slot.
+    ***************************************************************************/
+   private String indexedKey(final int slot) throws IOException {
+
+      this.inputIndex = this.index.positions[slot] + 1;
+      return parseKey();
+   }
+
+   /****************************************************************************
+    * @return validated value starting at a given slot.
+    ***************************************************************************/
+   private Object indexedValue(final int slot) throws IOException {
+
+      final int position = this.index.positions[slot];
+      final int chr = this.bytes[position] & 0xFF;
+      switch (chr) {
+         case '{':
+            return new LazyObject(this, slot);
+         case '[':
+            return new LazyArray(this, slot);
+         default:
+            this.inputIndex = position + 1;
+            return parseValue(chr);
+      }
+   }
+
+   /****************************************************************************
+    * @return slot following a validated value starting at a given slot.
+    ***************************************************************************/
+   private int afterIndexedValue(final int slot) {
+
+      final int chr = this.bytes[this.index.positions[slot]];
+      return chr == '{' | chr == '[' ? this.matching[slot] + 1 : slot + 1;
+   }
+
+   /****************************************************************************
+    * Moves the input to the next structural character and reads it.
+    ***************************************************************************/
+   private int nextStructural() throws IOException {
+
+      if (this.structural == this.index.count) {
+         throw new EOFException();
+      }
+      this.inputIndex = this.index.positions[this.structural++];
+      return this.bytes[this.inputIndex++] & 0xFF;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Object parseProjectedDocument(final Projection.Node node) 
+         throws IOException {
+
+      final int currentChar = consumeWhitespace(read());
+      switch (currentChar) {
+         case '{':
+            return parseProjectedObject(node);
+         case '[':
+            return parseProjectedArray(node.elements);
+         default:
+            throwUnexpected(currentChar);
+            return null;
+      }
+   }
+
+   /****************************************************************************
+    * @return a value selected by the node or SKIPPED.
+    ***************************************************************************/
+   private Object parseProjectedValue(final Projection.Node node, 
+         final int currentChar) throws IOException {
+
+      if (node.selected) {
+         return parseValue(currentChar);
+      }
+      if (currentChar == '{' & node.names != null) {
+         final Object o = parseProjectedObject(node);
+         this.recentChar = consumeWhitespace(read());
+         return o;
+      }
+      if (currentChar == '[' & node.elements != null) {
+         final Object o = parseProjectedArray(node.elements);
+         this.recentChar = consumeWhitespace(read());
+         return o;
+      }
+      skip(currentChar);
+      return SKIPPED;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private HashMap<String, Object> parseProjectedObject(final Projection.Node node)
+         throws IOException {
+
+      final HashMap<String, Object> result = new HashMap<>(this.initialHashtableSize);
+
+      int currentChar = consumeWhitespace(read());
+      while (currentChar != '}') {
+         if (currentChar != '"') {
+            throwUnexpected(currentChar);
+         }
+         scanString();
+         final Projection.Node member = node.member(this);
+         final String key = member != null ? sliceString(this.keyCache) : null;
+         currentChar = consumeWhitespace(read());
+         if (currentChar != ':') {
+            throwUnexpected(currentChar);
+         }
+         currentChar = consumeWhitespace(read());
+         if (member == null) {
+            skip(currentChar);
+         } else {
+            final Object value = parseProjectedValue(member, currentChar);
+            if (value != SKIPPED && result.put(key, value) != null) {
+               throw new DuplicatedKeyException(key);
+            }
+         }
+         currentChar = consumeWhitespace(this.recentChar);
+         if (currentChar == ',') {
+            currentChar = consumeWhitespace(read());
+         }
+      }
+      return result;
+   }
+
+   /****************************************************************************
+    * @param node node selecting the elements, may be null.
+    ***************************************************************************/
+   private ArrayList<Object> parseProjectedArray(final Projection.Node node) 
+         throws IOException {
+
+      if (node == null) {
+         skipArray();
+         return new ArrayList<>(0);
+      }
+      final ArrayList<Object> result = new ArrayList<>(this.initialVectorSize);
+
+      int currentChar = consumeWhitespace(read());
+      if (currentChar != ']') {
+         Object value = parseProjectedValue(node, currentChar);
+         if (value != SKIPPED) {
+            result.add(value);
+         }
+         currentChar = consumeWhitespace(this.recentChar);
+         while (currentChar != ']') {
+            if (currentChar == ',') {
+               currentChar = consumeWhitespace(read());
+            } else {
+               throwUnexpected(currentChar);
+            }
+            value = parseProjectedValue(node, currentChar);
+            if (value != SKIPPED) {
+               result.add(value);
+            }
+            currentChar = consumeWhitespace(this.recentChar);
+         }
+      }
+      return result;
+   }
+
+   /****************************************************************************
+    * Validates and skips a value without appending to the internal buffer, 
+    * creating strings or boxing numbers. The character following the value 
+    * is left in recentChar, in the same way as by parseValue.
+    ***************************************************************************/
+   private void skip(final int currentChar) throws IOException {
+
+      switch (currentChar) {
+         case '{':
+            skipObject();
+            this.recentChar = consumeWhitespace(read());
+            break;
+         case '[':
+            skipArray();
+            this.recentChar = consumeWhitespace(read());
+            break;
+         case '"':
+            skipString();
+            break;
+         case 't':
+            parseTrue();
+            break;
+         case 'f':
+            parseFalse();
+            break;
+         case 'n':
+            parseNull();
+            break;
+         case '-':
+         case '1':
+         case '2':
+         case '3':
+         case '4':
+         case '5':
+         case '6':
+         case '7':
+         case '8':
+         case '9':
+         case '0':
+            scanNumber(currentChar);
+            break;
+         default:
+            throwUnexpected(currentChar);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void skipObject() throws IOException {
+
+      int currentChar = consumeWhitespace(read());
+      while (currentChar != '}') {
+         if (currentChar != '"') {
+            throwUnexpected(currentChar);
+         }
+         skipString();
+         currentChar = consumeWhitespace(this.recentChar);
+         if (currentChar != ':') {
+            throwUnexpected(currentChar);
+         }
+         skip(consumeWhitespace(read()));
+         currentChar = consumeWhitespace(this.recentChar);
+         if (currentChar == ',') {
+            currentChar = consumeWhitespace(read());
+         }
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void skipArray() throws IOException {
+
+      int currentChar = consumeWhitespace(read());
+      if (currentChar != ']') {
+         skip(currentChar);
+         currentChar = consumeWhitespace(this.recentChar);
+         while (currentChar != ']') {
+            if (currentChar == ',') {
+               currentChar = consumeWhitespace(read());
+            } else {
+               throwUnexpected(currentChar);
+            }
+            skip(currentChar);
+            currentChar = consumeWhitespace(this.recentChar);
+         }
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private Object parseNumber(final int currentChar) throws IOException {
+
+      if (this.rawNumbers) {
+         return scanRawNumber(currentChar);
+      }
+      if (this.bigNumbers | this.fixedPointScale >= 0) {
+         return toExactNumber(lexNumber(currentChar));
+      }
+      if (scanNumber(currentChar)) {
+         return this.integerValue;
+      }
+      return this.decimalValue;
+   }
+
+   /****************************************************************************
+    * Scans a number leaving its value in integerValue or decimalValue. 
+    * Integers not fitting in a long are returned as decimals. 
+    * The character following the number is left in recentChar.
+    * @return true if the number is an integer.
+    ***************************************************************************/
+   private boolean scanNumber(final int currentChar) throws IOException {
+
+      if (lexNumber(currentChar) && toLong()) {
+         return true;
+      }
+      this.decimalValue = toDouble();
+      return false;
+   }
+
+   /****************************************************************************
+    * Converts a lexed number to java.lang.Long, java.math.BigInteger, 
+    * java.math.BigDecimal or fixed point java.lang.Long.
+    ***************************************************************************/
+   private Number toExactNumber(final boolean integer) {
+
+      if (integer) {
+         if (toLong()) {
+            return this.integerValue;
+         }
+         if (this.exponent == this.droppedDigits) {
+            // no exponent
+            final BigInteger value = new BigInteger(significandDigits());
+            return this.negative ? value.negate() : value;
+         }
+      } else if (this.fixedPointScale >= 0 && toFixedPoint()) {
+         return this.integerValue;
+      }
+      final BigDecimal value;
+      if (this.droppedDigits == 0 & this.significand >= 0) {
+         value = BigDecimal.valueOf(this.significand, -this.exponent);
+      } else {
+         value = new BigDecimal(new BigInteger(significandDigits()), 
+               this.droppedDigits - this.exponent);
+      }
+      return this.negative ? value.negate() : value;
+   }
+
+   /****************************************************************************
+    * Converts a lexed number to long leaving it in integerValue.
+    * @return false if the number does not fit in a long.
+    ***************************************************************************/
+   private boolean toLong() {
+
+      final long significand = this.significand;
+      final int exponent = this.exponent;
+      if (significand == 0) {
+         this.integerValue = 0;
+         return true;
+      }
+      if (exponent <= 18) {
+         final long power = LONG_POWERS_OF_TEN[exponent];
+         if (significand >= 0 & significand <= Long.MAX_VALUE / power) {
+            final long value = significand * power;
+            this.integerValue = this.negative ? -value : value;
+            return true;
+         }
+         if (this.negative & significand == Long.MIN_VALUE & exponent == 0) {
+            this.integerValue = Long.MIN_VALUE;
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /****************************************************************************
+    * Converts a lexed decimal to a long scaled by 10^fixedPointScale leaving 
+    * it in integerValue.
+    * @return false if the decimal cannot be represented exactly.
+    ***************************************************************************/
+   private boolean toFixedPoint() {
+
+      final long significand = this.significand;
+      final int exponent = this.exponent + this.fixedPointScale;
+      if (significand == 0) {
+         this.integerValue = 0;
+         return true;
+      }
+      if (this.droppedDigits > 0 | significand < 0 | exponent > 18 
+            | exponent < -18) {
+         return false;
+      }
+      final long value;
+      if (exponent >= 0) {
+         final long power = LONG_POWERS_OF_TEN[exponent];
+         if (significand > Long.MAX_VALUE / power) {
+            return false;
+         }
+         value = significand * power;
+      } else {
+         final long power = LONG_POWERS_OF_TEN[-exponent];
+         if (significand % power != 0) {
+            return false;
+         }
+         value = significand / power;
+      }
+      this.integerValue = this.negative ? -value : value;
+      return true;
+   }
+
+   /****************************************************************************
+    * Converts a lexed number to the nearest double.
+    ***************************************************************************/
+   private double toDouble() {
+
+      final long significand = this.significand;
+      final int exponent = this.exponent;
+      double value = DoubleConversion.toDouble(significand, exponent);
+      if (this.droppedDigits > 0 
+            && value != DoubleConversion.toDouble(significand + 1, exponent)) {
+         // truncated significand is not enough to round correctly
+         value = Double.parseDouble(significandDigits() + 'E' 
+               + (exponent - this.droppedDigits));
+      }
+      return this.negative ? -value : value;
+   }
+
+   /****************************************************************************
+    * @return all significant digits of a lexed number.
+    ***************************************************************************/
+   private String significandDigits() {
+
+      final String digits = Long.toUnsignedString(this.significand);
+      return this.droppedDigits > 0 ? digits + this.overflowDigits : digits;
+   }
+
+   /****************************************************************************
+    * Scans a number leaving its sign in negative and its value equal to 
+    * significand * 10^exponent. Up to 19 significant digits are accumulated 
+    * into significand, the following ones are counted in droppedDigits and 
+    * kept in overflowDigits. The character following the number is left in 
+    * recentChar.
+    * @return true if the number is an integer.
+    ***************************************************************************/
+   private boolean lexNumber(int currentChar) throws IOException {
+
+      boolean negative = false;
+      if (currentChar == '-') {
+         negative = true;
+         currentChar = read();
+         if (currentChar == -1) {
+            throw new EOFException();
+         }
+         if (currentChar == '.') {
+            throwUnexpected(currentChar);
+         }
+         if (isEndOfValue(currentChar)) {
+            throwUnexpected(currentChar);
+         }
+      }
+      this.droppedDigits = 0;
+      long significand = parseDigits(0, currentChar);
+      int exponent = this.droppedDigits;
+      boolean integer = true;
+      currentChar = this.recentChar;
+      if (currentChar == '.') {
+         // floating point
+         integer = false;
+         currentChar = read();
+         if (currentChar == -1) {
+            throw new EOFException();
+         }
+         if (!isDigit(currentChar)) {
+            throwUnexpected(currentChar);
+         }
+         significand = parseDigits(significand, currentChar);
+         exponent -= this.digitCount;
+         currentChar = this.recentChar;
+      }
+      if (currentChar == 'e' | currentChar == 'E') {
+         // exponent
+         currentChar = read();
+         boolean negativeExponent = false;
+         if (currentChar == '-') {
+            negativeExponent = true;
+            currentChar = read();
+         } else if (currentChar == '+') {
+            currentChar = read();
+         }
+         if (currentChar == -1) {
+            throw new EOFException();
+         }
+         if (!isDigit(currentChar)) {
+            throwUnexpected(currentChar);
+         }
+         final int value = parseExponent(currentChar);
+         currentChar = this.recentChar;
+         if (negativeExponent) {
+            integer &= value == 0;
+            exponent -= value;
+         } else {
+            exponent += value;
+         }
+      }
+      if (!isEndOfValue(currentChar)) {
+         throwUnexpected(currentChar);
+      }
+      this.recentChar = currentChar;
+      this.negative = negative;
+      this.significand = significand;
+      this.exponent = exponent;
+      return integer;
+   }
+
+   /****************************************************************************
+    * Validates a number copying its text to the number slab without 
+    * converting it. The character following the number is left in 
+    * recentChar.
+    ***************************************************************************/
+   private RawNumber scanRawNumber(int currentChar) throws IOException {
+
+      this.numberStart = this.numberIndex;
+      if (currentChar == '-') {
+         appendRaw(currentChar);
+         currentChar = read();
+      }
+      currentChar = appendRawDigits(currentChar);
+      if (currentChar == '.') {
+         appendRaw(currentChar);
+         currentChar = appendRawDigits(read());
+      }
+      if (currentChar == 'e' | currentChar == 'E') {
+         appendRaw(currentChar);
+         currentChar = read();
+         if (currentChar == '-' | currentChar == '+') {
+            appendRaw(currentChar);
+            currentChar = read();
+         }
+         currentChar = appendRawDigits(currentChar);
+      }
+      if (!isEndOfValue(currentChar)) {
+         throwUnexpected(currentChar);
+      }
+      this.recentChar = currentChar;
+      return new RawNumber(this.numberSlab, this.numberStart,
+            this.numberIndex - this.numberStart);
+   }
+
+   /****************************************************************************
+    * Copies a nonempty run of decimal digits to the number slab.
+    * @return the character following the digits.
+    ***************************************************************************/
+   private int appendRawDigits(int currentChar) throws IOException {
+
+      if (currentChar == -1) {
+         throw new EOFException();
+      }
+      if (!isDigit(currentChar)) {
+         throwUnexpected(currentChar);
+      }
+      do {
+         appendRaw(currentChar);
+         currentChar = read();
+      } while (isDigit(currentChar));
+      return currentChar;
+   }
+
+   /****************************************************************************
+    * Appends a character to the number slab. Slabs are never rewritten, 
+    * so when a slab is full the number scanned so far is moved to a new one.
+    ***************************************************************************/
+   private void appendRaw(final int chr) {
+
+      if (this.numberIndex == this.numberSlab.length) {
+         final int length = this.numberIndex - this.numberStart;
+         final char[] slab = new char[Math.max(NUMBER_SLAB_SIZE, length * 2)];
+         System.arraycopy(this.numberSlab, this.numberStart, slab, 0, length);
+         this.numberSlab = slab;
+         this.numberStart = 0;
+         this.numberIndex = length;
+      }
+      this.numberSlab[this.numberIndex++] = (char) chr;
+   }
+
+   /****************************************************************************
+    * Accumulates a run of decimal digits starting with currentChar into value.
+    * Digits following the first 19 significant ones are not accumulated but 
+    * counted in droppedDigits and kept in overflowDigits. The number of 
+    * accumulated digits is left in digitCount and the character following 
+    * the digits in recentChar.
+    ***************************************************************************/
+   private long parseDigits(long value, int currentChar) throws IOException {
+
+      if (this.bytes != null) {
+         return parseUtf8Digits(value, currentChar);
+      }
+      int count = 0;
+      while (isDigit(currentChar)) {
+         if (Long.compareUnsigned(value, MAX_SIGNIFICAND) < 0) {
+            value = 10 * value + (currentChar - '0');
+            ++count;
+         } else {
+            dropDigit(currentChar);
+         }
+         final char[] input = this.input;
+         final int length = this.inputLength;
+         int index = this.inputIndex;
+         while (index < length) {
+            currentChar = input[index++];
+            if (!isDigit(currentChar)) {
+               this.inputIndex = index;
+               this.recentChar = currentChar;
+               this.digitCount = count;
+               return value;
+            }
+            if (Long.compareUnsigned(value, MAX_SIGNIFICAND) < 0) {
+               value = 10 * value + (currentChar - '0');
+               ++count;
+            } else {
+               dropDigit(currentChar);
+            }
+         }
+         this.inputIndex = index;
+         currentChar = read();
+      }
+      this.recentChar = currentChar;
+      this.digitCount = count;
+      return value;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private long parseUtf8Digits(long value, int currentChar) throws IOException {
+
+      int count = 0;
+      while (isDigit(currentChar)) {
+         if (Long.compareUnsigned(value, MAX_SIGNIFICAND) < 0) {
+            value = 10 * value + (currentChar - '0');
+            ++count;
+         } else {
+            dropDigit(currentChar);
+         }
+         final byte[] bytes = this.bytes;
+         final int length = this.inputLength;
+         int index = this.inputIndex;
+         while (index < length) {
+            currentChar = bytes[index++] & 0xFF;
+            if (!isDigit(currentChar)) {
+               this.inputIndex = index;
+               this.recentChar = currentChar;
+               this.digitCount = count;
+               return value;
+            }
+            if (Long.compareUnsigned(value, MAX_SIGNIFICAND) < 0) {
+               value = 10 * value + (currentChar - '0');
+               ++count;
+            } else {
+               dropDigit(currentChar);
+            }
+         }
+         this.inputIndex = index;
+         currentChar = read();
+      }
+      this.recentChar = currentChar;
+      this.digitCount = count;
+      return value;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void dropDigit(final int digit) {
+
+      if (this.droppedDigits++ == 0) {
+         if (this.overflowDigits == null) {
+            this.overflowDigits = new StringBuilder();
+         } else {
+            this.overflowDigits.setLength(0);
+         }
+      }
+      this.overflowDigits.append((char) digit);
+   }
+
+   /****************************************************************************
+    * Parses exponent digits saturating at a value beyond the double range. 
+    * The character following the digits is left in recentChar.
+    ***************************************************************************/
+   private int parseExponent(int currentChar) throws IOException {
+
+      int value = 0;
+      while (isDigit(currentChar)) {
+         if (value < MAX_EXPONENT) {
+            value = 10 * value + (currentChar - '0');
+         }
+         currentChar = read();
+      }
+      this.recentChar = currentChar;
+      return value;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private String parseString() throws IOException {
+
+      scanString();
+      final String result = sliceString(this.valueCache);
+      this.recentChar = read();
+      return result;
+   }
+
+   /****************************************************************************
+    * Parses an object key which opening quote was already read.
+    ***************************************************************************/
+   private String parseKey() throws IOException {
+
+      scanString();
+      final String result = sliceString(this.keyCache);
+      this.recentChar = read();
+      return result;
+   }
+
+   /****************************************************************************
+    * @return the recently scanned string, taken from the cache if there is 
+    * one.
+    ***************************************************************************/
+   private String sliceString(final StringCache cache) {
+
+      if (cache == null) {
+         return sliceString();
+      } else if (this.sliceBytes != null) {
+         return cache.get(this.sliceBytes, this.sliceOffset, this.sliceLength);
+      } else {
+         return cache.get(this.sliceChars, this.sliceOffset, this.sliceLength);
+      }
+   }
+
+   /****************************************************************************
+    * @return the recently scanned string.
+    ***************************************************************************/
+   private String sliceString() {
+
+      final int length = this.sliceLength;
+      if (length == 0) {
+         return "";
+      } else if (this.sliceBytes != null) {
+         return new String(this.sliceBytes, this.sliceOffset, length, ISO_8859_1);
+      } else {
+         return new String(this.sliceChars, this.sliceOffset, length);
+      }
+   }
+
+   /****************************************************************************
+    * @return true if the recently scanned string is equal to the name.
+    ***************************************************************************/
+   private boolean sliceEquals(final char[] name) {
+
+      final int length = this.sliceLength;
+      if (name.length != length) {
+         return false;
+      }
+      final int offset = this.sliceOffset;
+      if (this.sliceBytes != null) {
+         final byte[] bytes = this.sliceBytes;
+         for (int i = 0; i < length; ++i) {
+            if (bytes[offset + i] != name[i]) {
+               return false;
+            }
+         }
+      } else {
+         final char[] chars = this.sliceChars;
+         for (int i = 0; i < length; ++i) {
+            if (chars[offset + i] != name[i]) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /****************************************************************************
+    * Scans a string which opening quote was already read. The string is left
+    * in a slice of the input window or of the internal buffer, which stays 
+    * valid until the next character is read. The closing quote is consumed
+    * but the character following it is not read.
+    ***************************************************************************/
+   private void scanString() throws IOException {
+
+      if (this.bytes != null) {
+         scanUtf8String();
+         return;
+      }
+      this.bufIndex = 0;
+      for (;;) {
+         final char[] input = this.input;
+         final int length = this.inputLength;
+         final int start = this.inputIndex;
+         int index = start;
+         while (index < length) {
+            final char chr = input[index];
+            if (chr == '"' | chr == '\\') {
+               break;
+            }
+            ++index;
+         }
+         if (index == length) {
+            append(input, start, index - start);
+            this.inputIndex = index;
+            if (!fill()) {
+               throw new EOFException();
+            }
+         } else {
+            this.inputIndex = index + 1;
+            if (input[index] == '"') {
+               if (this.bufIndex == 0) {
+                  // the whole string is in the input window - no copying needed
+                  setSlice(input, start, index - start);
+               } else {
+                  append(input, start, index - start);
+                  setSlice(this.buffer, 0, this.bufIndex);
+               }
+               return;
+            }
+            append(input, start, index - start);
+            append(parseEscapedCharacter());
+         }
+      }
+   }
+   /****************************************************************************
+    * Skips a string validating it but without creating it.
+    ***************************************************************************/
+   private void skipString() throws IOException {
+
+      for (;;) {
+         final int length = this.inputLength;
+         int index = this.inputIndex;
+         int chr = -1;
+         if (this.bytes == null) {
+            final char[] input = this.input;
+            while (index < length) {
+               final char c = input[index++];
+               if (c == '"' | c == '\\') {
+                  chr = c;
+                  break;
+               }
+            }
+         } else {
+            final byte[] bytes = this.bytes;
+            while (index < length) {
+               final byte b = bytes[index++];
+               if (b == '"' | b == '\\' | b < 0) {
+                  chr = b & 0xFF;
+                  break;
+               }
+            }
+         }
+         this.inputIndex = index;
+         if (chr == '"') {
+            this.recentChar = read();
+            return;
+         } else if (chr == '\\') {
+            parseEscapedCharacter();
+         } else if (chr >= 0x80) {
+            parseUtf8Sequence(chr);
+         } else if (!fill()) {
+            throw new EOFException();
+         }
+      }
+   }
+   /****************************************************************************
+    * Scans a string directly from UTF-8 bytes. Runs of ASCII characters are
+    * scanned in bulk, and a string consisting only of ASCII characters that
+    * lies entirely in the input window is left as a slice of the bytes.
+    ***************************************************************************/
+   private void scanUtf8String() throws IOException {
+
+      this.bufIndex = 0;
+      for (;;) {
+         final byte[] bytes = this.bytes;
+         final int length = this.inputLength;
+         final int start = this.inputIndex;
+         int index = start;
+         while (index < length) {
+            final byte b = bytes[index];
+            if (b == '"' | b == '\\' | b < 0) {
+               break;
+            }
+            ++index;
+         }
+         if (index == length) {
+            appendAscii(bytes, start, index - start);
+            this.inputIndex = index;
+            if (!fill()) {
+               throw new EOFException();
+            }
+         } else {
+            this.inputIndex = index + 1;
+            final byte b = bytes[index];
+            if (b == '"') {
+               if (this.bufIndex == 0) {
+                  // pure ASCII string in the input window - no decoding needed
+                  this.sliceChars = null;
+                  this.sliceBytes = bytes;
+                  this.sliceOffset = start;
+                  this.sliceLength = index - start;
+               } else {
+                  appendAscii(bytes, start, index - start);
+                  setSlice(this.buffer, 0, this.bufIndex);
+               }
+               return;
+            }
+            appendAscii(bytes, start, index - start);
+            if (b == '\\') {
+               append(parseEscapedCharacter());
+            } else {
+               appendCodePoint(parseUtf8Sequence(b & 0xFF));
+            }
+         }
+      }
+   }
+   /****************************************************************************
+    * Decodes a multibyte UTF-8 sequence which lead byte was already read.
+    * @return decoded code point.
+    * Overlong encodings, encoded surrogates and code points above U+10FFFF 
+    * are rejected.
+    ***************************************************************************/
+   private int parseUtf8Sequence(final int lead) throws IOException {
+
+      if (lead >= 0xC2 & lead <= 0xDF) {
+         return ((lead & 0x1F) << 6) | readContinuation(0x80, 0xBF);
+      } else if (lead >= 0xE0 & lead <= 0xEF) {
+         final int low = lead == 0xE0 ? 0xA0 : 0x80;
+         final int high = lead == 0xED ? 0x9F : 0xBF;
+         final int b1 = readContinuation(low, high);
+         final int b2 = readContinuation(0x80, 0xBF);
+         return ((lead & 0x0F) << 12) | (b1 << 6) | b2;
+      } else if (lead >= 0xF0 & lead <= 0xF4) {
+         final int low = lead == 0xF0 ? 0x90 : 0x80;
+         final int high = lead == 0xF4 ? 0x8F : 0xBF;
+         final int b1 = readContinuation(low, high);
+         final int b2 = readContinuation(0x80, 0xBF);
+         final int b3 = readContinuation(0x80, 0xBF);
+         return ((lead & 0x07) << 18) | (b1 << 12) | (b2 << 6) | b3;
+      } else {
+         throwUnexpected(lead);
+         return 0;
+      }
+   }
+   /****************************************************************************
+    * Reads a UTF-8 continuation byte from a given range.
+    * @return six bits of payload.
+    ***************************************************************************/
+   private int readContinuation(final int low, final int high) throws IOException {
+
+      final int b = read();
+      if (b == -1) {
+         throw new EOFException();
+      }
+      if (b < low | b > high) {
+         throwUnexpected(b);
+      }
+      return b & 0x3F;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private char parseEscapedCharacter() throws IOException {
+
+      int currentChar = read();
+      switch (currentChar) {
+         case -1:
+            throw new EOFException();
+         case '\\':
+            return '\\';
+         case '"':
+            return '\"';
+         case '/':
+            return '/';
+         case 'b':
+            return '\b';
+         case 'f':
+            return '\f';
+         case 'n':
+            return '\n';
+         case 'r':
+            return '\r';
+         case 't':
+            return '\t';
+         case 'u':
+            return parseHexadecimalCharacter();
+         default:
+            throwUnexpected((char) currentChar);
+            return 0;
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private char parseHexadecimalCharacter() throws IOException {
+
+      int chr = 0;
+      for (int i = 0; i < 4; ++i) {
+         chr <<= 4;
+         int currentChar = read();
+         if (currentChar >= '0' & currentChar <= '9') {
+            chr += (currentChar - '0');
+         } else if (currentChar >= 'A' & currentChar <= 'F') {
+            chr += (10 + (currentChar - 'A'));
+         } else if (currentChar >= 'a' & currentChar <= 'f') {
+            chr += (10 + (currentChar - 'a'));
+         } else if (currentChar == -1) {
+            throw new EOFException();
+         } else {
+            throwUnexpected(currentChar);
+         }
+      }
+      return (char) chr;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void setSlice(final char[] chars, final int offset, final int length) {
+
+      this.sliceBytes = null;
+      this.sliceChars = chars;
+      this.sliceOffset = offset;
+      this.sliceLength = length;
+   }
+   /****************************************************************************
+    * Makes sure the recently scanned string is available as characters,
+    * widening an ASCII byte slice into the internal buffer if necessary.
+    ***************************************************************************/
+   private void toCharSlice() {
+
+      if (this.sliceBytes != null) {
+         this.bufIndex = 0;
+         appendAscii(this.sliceBytes, this.sliceOffset, this.sliceLength);
+         setSlice(this.buffer, 0, this.bufIndex);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void throwUnexpected(final int chr) throws IOException {
+
+      final long position = this.inputBase + this.inputIndex - 1;
+      if (this.bytes != null & chr >= 0x80) {
+         throw new UnexpectedCharacterException(position,
+               decodeUnexpected(this.bytes, this.inputIndex - 1, this.inputLength));
+      }
+      throw new UnexpectedCharacterException(position, (char) chr);
+   }
+
+   /****************************************************************************
+    * Decodes a character encoded in UTF-8 at a given index for the purpose of 
+    * error reporting. If the character cannot be decoded from the input 
+    * window the byte value itself is returned.
+    ***************************************************************************/
+   private static char decodeUnexpected(final byte[] bytes, final int index,
+         final int length) {
+
+      final int lead = bytes[index] & 0xFF;
+      if (lead >= 0xC2 & lead <= 0xDF & index + 1 < length) {
+         return (char) (((lead & 0x1F) << 6) | (bytes[index + 1] & 0x3F));
+      }
+      if (lead >= 0xE0 & lead <= 0xEF & index + 2 < length) {
+         return (char) (((lead & 0x0F) << 12) | ((bytes[index + 1] & 0x3F) << 6)
+               | (bytes[index + 2] & 0x3F));
+      }
+      return (char) lead;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static boolean isDigit(final int chr) {
+
+      return chr >= '0' & chr <= '9';
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private int consumeWhitespace(int chr) throws IOException {
+
+      if (this.bytes != null) {
+         return consumeUtf8Whitespace(chr);
+      }
+      while (isWhitespace(chr)) {
+         final char[] input = this.input;
+         final int length = this.inputLength;
+         int index = this.inputIndex;
+         while (index < length) {
+            chr = input[index++];
+            if (!isWhitespace(chr)) {
+               this.inputIndex = index;
+               return chr;
+            }
+         }
+         this.inputIndex = index;
+         chr = read();
+      }
+      if (chr == -1) {
+         throw new EOFException();
+      }
+      return chr;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private int consumeUtf8Whitespace(int chr) throws IOException {
+
+      while (isWhitespace(chr)) {
+         final byte[] bytes = this.bytes;
+         final int length = this.inputLength;
+         int index = this.inputIndex;
+         while (index < length) {
+            chr = bytes[index++] & 0xFF;
+            if (!isWhitespace(chr)) {
+               this.inputIndex = index;
+               return chr;
+            }
+         }
+         this.inputIndex = index;
+         chr = read();
+      }
+      if (chr == -1) {
+         throw new EOFException();
+      }
+      return chr;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static boolean isWhitespace(final int chr) {
+
+      return chr == ' ' | chr == '\b' | chr == '\f' | chr == '\n' | chr == '\r'
+            | chr == '\t';
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static boolean isEndOfValue(final int chr) {
+
+      return chr == -1 | chr == ' ' | chr == '\t' | chr == '\n' | chr == '\r'
+            | chr == ']' | chr == '}' | chr == ',' | chr == ':';
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void append(final char chr) {
+
+      if (this.bufIndex == this.bufferSize) {
+         this.bufferSize *= 2;
+         this.buffer = copyOf(this.buffer, this.bufferSize);
+      }
+      this.buffer[this.bufIndex++] = chr;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void appendCodePoint(final int codePoint) {
+
+      if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+         append((char) codePoint);
+      } else {
+         append(Character.highSurrogate(codePoint));
+         append(Character.lowSurrogate(codePoint));
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void append(final char[] chars, final int offset, final int count) {
+
+      final int required = this.bufIndex + count;
+      if (required > this.bufferSize) {
+         do {
+            this.bufferSize *= 2;
+         } while (required > this.bufferSize);
+         this.buffer = copyOf(this.buffer, this.bufferSize);
+      }
+      System.arraycopy(chars, offset, this.buffer, this.bufIndex, count);
+      this.bufIndex = required;
+   }
+
+   /****************************************************************************
+    * Appends ASCII bytes widening them to characters.
+    ***************************************************************************/
+   private void appendAscii(final byte[] bytes, final int offset, final int count) {
+
+      final int required = this.bufIndex + count;
+      if (required > this.bufferSize) {
+         do {
+            this.bufferSize *= 2;
+         } while (required > this.bufferSize);
+         this.buffer = copyOf(this.buffer, this.bufferSize);
+      }
+      final char[] buffer = this.buffer;
+      for (int i = 0, j = this.bufIndex; i < count; ++i, ++j) {
+         buffer[j] = (char) bytes[offset + i];
+      }
+      this.bufIndex = required;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private int read() throws IOException {
+
+      if (this.inputIndex == this.inputLength && !fill()) {
+         return -1;
+      }
+      final byte[] bytes = this.bytes;
+      return bytes == null ? this.input[this.inputIndex++]
+            : bytes[this.inputIndex++] & 0xFF;
+   }
+
+   /****************************************************************************
+    * Reads next block of characters into the input window.
+    * @return false if there is no more input.
+    ***************************************************************************/
+   private boolean fill() throws IOException {
+
+      this.inputBase += this.inputLength;
+      this.inputIndex = 0;
+      this.inputLength = 0;
+      int count;
+      if (this.reader != null) {
+         if (this.reader.markSupported()) {
+            this.reader.mark(this.input.length);
+         }
+         do {
+            count = this.reader.read(this.input, 0, this.input.length);
+         } while (count == 0);
+      } else if (this.sequence != null) {
+         count = Math.min(this.input.length, this.sequenceLength - this.sequenceIndex);
+         getChars(this.sequence, this.sequenceIndex, count, this.input);
+         this.sequenceIndex += count;
+      } else if (this.stream != null) {
+         if (this.stream.markSupported()) {
+            this.stream.mark(this.bytes.length);
+         }
+         do {
+            count = this.stream.read(this.bytes, 0, this.bytes.length);
+         } while (count == 0);
+      } else if (this.source != null | this.channel != null) {
+         if ((this.source == null || !this.source.hasRemaining())
+               && this.channel != null && this.mappingEnd < this.mappingLimit) {
+            mapNextRegion();
+         }
+         if (this.source == null) {
+            return false;
+         }
+         count = Math.min(this.bytes.length, this.source.remaining());
+         this.source.get(this.bytes, 0, count);
+      } else {
+         return false;
+      }
+      if (count <= 0) {
+         return false;
+      }
+      this.inputLength = count;
+      return true;
+   }
+
+   /****************************************************************************
+    * Maps the next region of the channel. Regions are mapped one by one,
+    * so the amount of mapped memory is bounded regardless of file size.
+    ***************************************************************************/
+   private void mapNextRegion() throws IOException {
+
+      final long size = Math.min(MAPPING_SIZE, this.mappingLimit - this.mappingEnd);
+      this.source = this.channel.map(READ_ONLY, this.mappingEnd, size);
+      this.mappingEnd += size;
+   }
+
+   /****************************************************************************
+    * Copies characters from a sequence using bulk copying where possible.
+    ***************************************************************************/
+   private static void getChars(final CharSequence sequence, final int index,
+         final int count, final char[] dest) {
+
+      final int end = index + count;
+      if (sequence instanceof String) {
+         ((String) sequence).getChars(index, end, dest, 0);
+      } else if (sequence instanceof StringBuilder) {
+         ((StringBuilder) sequence).getChars(index, end, dest, 0);
+      } else if (sequence instanceof StringBuffer) {
+         ((StringBuffer) sequence).getChars(index, end, dest, 0);
+      } else {
+         for (int i = index; i < end; ++i) {
+            dest[i - index] = sequence.charAt(i);
+         }
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private final static int WINDOW_SIZE = 8192;
+   private final static long MAPPING_SIZE = 1 << 26;
+   private final static int CHUNK_SIZE = 1 << 23;
+   private final static int NUMBER_SLAB_SIZE = 1024;
+   private final static long MAX_SIGNIFICAND = 1000000000000000000L;
+   private final static int MAX_EXPONENT = 100000;
+   private final static long[] LONG_POWERS_OF_TEN = {1L, 10L, 100L, 1000L,
+      10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+      10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+      100000000000000L, 1000000000000000L, 10000000000000000L,
+      100000000000000000L, 1000000000000000000L};
+
+   private StringCache keyCache;
+   private StringCache valueCache;
+   private boolean primitiveArrays;
+   private boolean rawNumbers;
+   private boolean bigNumbers;
+   private int fixedPointScale = -1;
+   private char[] numberSlab = new char[0];
+   private int numberStart;
+   private int numberIndex;
+   private StructuralIndex index;
+   private int structural;
+   private int[] matching;
+   private int[] keySlots;
+   private int keyCount;
+   private Reader reader;
+   private InputStream stream;
+   private Closeable parked;
+   private int parkedIndex;
+   private int parkedLength;
+   private char[] readerWindow;
+   private byte[] streamWindow;
+   private ByteBuffer source;
+   private FileChannel channel;
+   private long mappingEnd = 0;
+   private long mappingLimit = 0;
+   private byte[] byteWindow;
+   private byte[] bytes;
+   private CharSequence sequence;
+   private int sequenceIndex = 0;
+   private int sequenceLength = 0;
+   private char[] window;
+   private char[] input;
+   private int inputIndex = 0;
+   private int inputLength = 0;
+   private long inputBase = 0;
+   private int recentChar = -1;
+   private long integerValue;
+   private double decimalValue;
+   private boolean negative;
+   private long significand;
+   private int exponent;
+   private int digitCount;
+   private int droppedDigits;
+   private StringBuilder overflowDigits;
+   private char[] sliceChars;
+   private byte[] sliceBytes;
+   private int sliceOffset;
+   private int sliceLength;
+   private char[] buffer;
+   private int bufferSize;
+   private int bufIndex = 0;
+
+   private final int initialVectorSize;
+   private final int initialHashtableSize;
+   /****************************************************************************
+    * Receiver of events pushed by parse methods taking a handler. 
+    * All methods do nothing by default, so only the events of interest need 
+    * to be implemented. Characters passed to key and value methods are 
+    * valid only during the call and must be copied if they are to be kept.
+    * @author lukasz.bownik@gmail.com
+    ***************************************************************************/
+   public static interface Handler {
+
+      /** Called at the beginning of JSON object.*/
+      default void startObject() throws IOException {
+      }
+      /** Called for the name of JSON object member.*/
+      default void key(final char[] chars, final int offset, final int length)
+            throws IOException {
+      }
+      /** Called at the end of JSON object.*/
+      default void endObject() throws IOException {
+      }
+      /** Called at the beginning of JSON array.*/
+      default void startArray() throws IOException {
+      }
+      /** Called at the end of JSON array.*/
+      default void endArray() throws IOException {
+      }
+      /** Called for JSON string.*/
+      default void value(final char[] chars, final int offset, final int length)
+            throws IOException {
+      }
+      /** Called for JSON number with no fraction.*/
+      default void value(final long value) throws IOException {
+      }
+      /** Called for JSON number with a fraction.*/
+      default void value(final double value) throws IOException {
+      }
+      /** Called for JSON true or false.*/
+      default void value(final boolean value) throws IOException {
+      }
+      /** Called for JSON null.*/
+      default void nullValue() throws IOException {
+      }
+   }
+   /****************************************************************************
+    * Set of paths of values to be kept by parse methods taking a projection.
+    * A path consists of member names separated by dots, and [*] selecting 
+    * all elements of an array, for example "alarms[*].state" or 
+    * "abcde.interval". A path may start with [*] if the top level value is 
+    * an array. Member names cannot contain dots or square brackets.
+    * The whole value at the end of a path is kept. Objects and arrays on 
+    * a path are kept with the selected members only, and array elements 
+    * which have nothing selected (like scalars when a member of an element 
+    * is selected) are left out.
+    * Projections are immutable and can be shared by parsers.
+    * @author lukasz.bownik@gmail.com
+    ***************************************************************************/
+   public final static class Projection {
+
+      /*************************************************************************
+       * Creates a projection.
+       * @param paths paths of values to keep.
+       * @throws NullPointerException if paths or any path is null.
+       * @throws IllegalArgumentException if a path is malformed.
+       ************************************************************************/
+      public Projection(final String... paths) {
+
+         if (paths == null) {
+            throw new NullPointerException("paths");
+         }
+         for (final String path : paths) {
+            add(path);
+         }
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private void add(final String path) {
+
+         if (path == null) {
+            throw new NullPointerException("path");
+         }
+         final int length = path.length();
+         if (length == 0) {
+            throw new IllegalArgumentException("Empty path.");
+         }
+         Node node = this.root;
+         int index = 0;
+         while (index < length) {
+            if (path.startsWith("[*]", index)) {
+               if (node.elements == null) {
+                  node.elements = new Node();
+               }
+               node = node.elements;
+               index += 3;
+            } else {
+               if (index > 0) {
+                  if (path.charAt(index) != '.') {
+                     throw new IllegalArgumentException("Malformed path: " + path);
+                  }
+                  ++index;
+               }
+               int end = index;
+               while (end < length && path.charAt(end) != '.' 
+                     && path.charAt(end) != '[') {
+                  ++end;
+               }
+               if (end == index) {
+                  throw new IllegalArgumentException("Malformed path: " + path);
+               }
+               node = node.add(path.substring(index, end).toCharArray());
+               index = end;
+            }
+         }
+         node.selected = true;
+      }
+
+      private final Node root = new Node();
+
+      /*************************************************************************
+       * Node of a tree of paths.
+       ************************************************************************/
+      private final static class Node {
+
+         /**********************************************************************
+          * 
+          *********************************************************************/
+         private Node add(final char[] name) {
+
+            if (this.names == null) {
+               this.names = new char[0][];
+               this.members = new Node[0];
+            }
+            for (int i = 0; i < this.names.length; ++i) {
+               if (Arrays.equals(this.names[i], name)) {
+                  return this.members[i];
+               }
+            }
+            this.names = copyOf(this.names, this.names.length + 1);
+            this.members = copyOf(this.members, this.members.length + 1);
+            this.names[this.names.length - 1] = name;
+            return this.members[this.members.length - 1] = new Node();
+         }
+         /**********************************************************************
+          * @return member node which name is equal to the string recently
+          * scanned by the parser, or null.
+          *********************************************************************/
+         private Node member(final Parser parser) {
+
+            final char[][] names = this.names;
+            if (names != null) {
+               for (int i = 0; i < names.length; ++i) {
+                  if (parser.sliceEquals(names[i])) {
+                     return this.members[i];
+                  }
+               }
+            }
+            return null;
+         }
+
+         private char[][] names;
+         private Node[] members;
+         private Node elements;
+         private boolean selected;
+      }
+   }
+   /****************************************************************************
+    * Bounded cache of strings used to deduplicate object keys or short string
+    * values. Strings are stored in a two way set associative table indexed 
+    * by their hash codes. A string found in a set becomes its most recently
+    * used one, and a new string evicts the least recently used one of its 
+    * set. Strings longer than the length cutoff are not cached. 
+    * The cache can be shared by parsers used by different threads. 
+    * Since strings are immutable no locking is needed: a thread may only 
+    * miss a string recently stored by another thread and create it again.
+    * @author lukasz.bownik@gmail.com
+    ***************************************************************************/
+   public final static class StringCache {
+
+      /*************************************************************************
+       * Creates a cache of strings up to 64 characters long.
+       * @param capacity maximum number of cached strings, rounded up to 
+       * a power of two.
+       * @throws IllegalArgumentException if capacity <= 0 or capacity > 2^30.
+       ************************************************************************/
+      public StringCache(final int capacity) {
+
+         this(capacity, 64);
+      }
+      /*************************************************************************
+       * Creates a cache.
+       * @param capacity maximum number of cached strings, rounded up to 
+       * a power of two.
+       * @param maxLength maximum length of cached strings.
+       * @throws IllegalArgumentException if capacity <= 0 or capacity > 2^30
+       * or maxLength < 0.
+       ************************************************************************/
+      public StringCache(final int capacity, final int maxLength) {
+
+         if (capacity <= 0 | capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+         }
+         if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength: " + maxLength);
+         }
+         final int size = Math.max(Integer.highestOneBit(capacity - 1) << 1, 2);
+         this.table = new String[size];
+         this.setMask = size / 2 - 1;
+         this.maxLength = maxLength;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private String get(final char[] chars, final int offset, final int length) {
+
+         if (length > this.maxLength) {
+            return new String(chars, offset, length);
+         }
+         int hash = 0;
+         for (int i = offset; i < offset + length; ++i) {
+            hash = 31 * hash + chars[i];
+         }
+         final int set = set(hash);
+         for (int way = 0; way < 2; ++way) {
+            final String str = this.table[set + way];
+            if (str != null && str.length() == length) {
+               int i = 0;
+               while (i < length && str.charAt(i) == chars[offset + i]) {
+                  ++i;
+               }
+               if (i == length) {
+                  return use(set, way, str);
+               }
+            }
+         }
+         return use(set, 1, new String(chars, offset, length));
+      }
+      /*************************************************************************
+       * @param bytes ASCII characters.
+       ************************************************************************/
+      private String get(final byte[] bytes, final int offset, final int length) {
+
+         if (length > this.maxLength) {
+            return new String(bytes, offset, length, ISO_8859_1);
+         }
+         int hash = 0;
+         for (int i = offset; i < offset + length; ++i) {
+            hash = 31 * hash + bytes[i];
+         }
+         final int set = set(hash);
+         for (int way = 0; way < 2; ++way) {
+            final String str = this.table[set + way];
+            if (str != null && str.length() == length) {
+               int i = 0;
+               while (i < length && str.charAt(i) == bytes[offset + i]) {
+                  ++i;
+               }
+               if (i == length) {
+                  return use(set, way, str);
+               }
+            }
+         }
+         return use(set, 1, new String(bytes, offset, length, ISO_8859_1));
+      }
+      /*************************************************************************
+       * @return index of the first entry of the set of a given hash code.
+       ************************************************************************/
+      private int set(final int hash) {
+
+         return ((hash ^ (hash >>> 16)) & this.setMask) << 1;
+      }
+      /*************************************************************************
+       * Makes a string the most recently used one of its set, moving 
+       * the previous one to the second way and evicting the string that was
+       * there if the string was found in the second way or is new.
+       ************************************************************************/
+      private String use(final int set, final int way, final String str) {
+
+         if (way == 1) {
+            this.table[set + 1] = this.table[set];
+            this.table[set] = str;
+         }
+         return str;
+      }
+
+      private final String[] table;
+      private final int setMask;
+      private final int maxLength;
+   }
+   /****************************************************************************
+    * JSON token types reported by Tokenizer.
+    ***************************************************************************/
+   public static enum Token {
+
+      /** Beginning of JSON object.*/
+      BEGIN_OBJECT,
+      /** End of JSON object.*/
+      END_OBJECT,
+      /** Beginning of JSON array.*/
+      BEGIN_ARRAY,
+      /** End of JSON array.*/
+      END_ARRAY,
+      /** Name of JSON object member.*/
+      NAME,
+      /** JSON string.*/
+      STRING,
+      /** JSON number.*/
+      NUMBER,
+      /** JSON true or false.*/
+      BOOLEAN,
+      /** JSON null.*/
+      NULL,
+      /** End of JSON value at the top level.*/
+      END_DOCUMENT
+   }
+   /****************************************************************************
+    * Pull tokenizer reading one JSON value token by token with the lexer of 
+    * the parser that created it. Only a stack of nesting states is kept, 
+    * so memory use does not depend on the size of the document.
+    * Any JSON value (not only objects and arrays) is accepted at the top 
+    * level. After the top level value END_DOCUMENT is reported and 
+    * the input following the value is left unconsumed.
+    * This class is not thread safe.
+    * @author lukasz.bownik@gmail.com
+    ***************************************************************************/
+   public final class Tokenizer {
+
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private Tokenizer() {
+
+         this.stack = new int[16];
+         this.stack[0] = EMPTY_DOCUMENT;
+         this.depth = 1;
+      }
+      /*************************************************************************
+       * Returns the type of the next token without consuming it.
+       * @return next token type.
+       * @throws IOException if input error occurs.
+       * @throws primitive.json.UnexpectedCharacterException if malformed JSON 
+       * is encountered.
+       ************************************************************************/
+      public Token peek() throws IOException {
+
+         if (this.peeked == null) {
+            this.peeked = advance();
+         }
+         return this.peeked;
+      }
+      /*************************************************************************
+       * Consumes the next token of any type. Values of NAME, STRING, NUMBER,
+       * BOOLEAN and NULL tokens are available from value().
+       * @return consumed token type.
+       * @throws IOException if input error occurs.
+       * @throws primitive.json.UnexpectedCharacterException if malformed JSON 
+       * is encountered.
+       ************************************************************************/
+      public Token nextToken() throws IOException {
+
+         final Token token = peek();
+         switch (token) {
+            case BEGIN_OBJECT:
+               beginObject();
+               break;
+            case END_OBJECT:
+               endObject();
+               break;
+            case BEGIN_ARRAY:
+               beginArray();
+               break;
+            case END_ARRAY:
+               endArray();
+               break;
+            case NAME:
+               this.value = nextName();
+               break;
+            case STRING:
+               this.value = nextString();
+               break;
+            case NUMBER:
+               this.value = nextNumber();
+               break;
+            case BOOLEAN:
+               this.value = nextBoolean();
+               break;
+            case NULL:
+               nextNull();
+               this.value = null;
+               break;
+            default:
+               break;
+         }
+         return token;
+      }
+      /*************************************************************************
+       * @return value of the token recently consumed by nextToken().
+       ************************************************************************/
+      public Object value() {
+
+         return this.value;
+      }
+      /*************************************************************************
+       * @return true if the current object or array has more elements.
+       * @throws IOException if input error occurs.
+       ************************************************************************/
+      public boolean hasNext() throws IOException {
+
+         final Token token = peek();
+         return token != Token.END_OBJECT & token != Token.END_ARRAY
+               & token != Token.END_DOCUMENT;
+      }
+      /*************************************************************************
+       * Consumes the beginning of an object.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not BEGIN_OBJECT.
+       ************************************************************************/
+      public void beginObject() throws IOException {
+
+         consume(Token.BEGIN_OBJECT);
+         push(EMPTY_OBJECT);
+      }
+      /*************************************************************************
+       * Consumes the end of an object.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not END_OBJECT.
+       ************************************************************************/
+      public void endObject() throws IOException {
+
+         consume(Token.END_OBJECT);
+         --this.depth;
+      }
+      /*************************************************************************
+       * Consumes the beginning of an array.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not BEGIN_ARRAY.
+       ************************************************************************/
+      public void beginArray() throws IOException {
+
+         consume(Token.BEGIN_ARRAY);
+         push(EMPTY_ARRAY);
+      }
+      /*************************************************************************
+       * Consumes the end of an array.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not END_ARRAY.
+       ************************************************************************/
+      public void endArray() throws IOException {
+
+         consume(Token.END_ARRAY);
+         --this.depth;
+      }
+      /*************************************************************************
+       * Consumes a name of an object member.
+       * @return the name.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not NAME.
+       ************************************************************************/
+      public String nextName() throws IOException {
+
+         consume(Token.NAME);
+         final String name = parseKey();
+         this.pending = recentChar;
+         return name;
+      }
+      /*************************************************************************
+       * Consumes a string.
+       * @return the string.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not STRING.
+       ************************************************************************/
+      public String nextString() throws IOException {
+
+         consume(Token.STRING);
+         final String result = parseString();
+         this.pending = recentChar;
+         return result;
+      }
+      /*************************************************************************
+       * Consumes a number.
+       * @return java.lang.Long or java.lang.Double in the same way as parse
+       * methods do.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not NUMBER.
+       ************************************************************************/
+      public Number nextNumber() throws IOException {
+
+         consume(Token.NUMBER);
+         final Number result = (Number) parseNumber(this.firstChar);
+         this.pending = recentChar;
+         return result;
+      }
+      /*************************************************************************
+       * Consumes a number.
+       * @return the number.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not NUMBER.
+       * @throws NumberFormatException if the number has fractional part.
+       ************************************************************************/
+      public long nextLong() throws IOException {
+
+         final Number number = nextNumber();
+         if (number instanceof Long) {
+            return number.longValue();
+         }
+         final double d = number.doubleValue();
+         final long result = (long) d;
+         if (result != d) {
+            throw new NumberFormatException("Not a long value: " + d);
+         }
+         return result;
+      }
+      /*************************************************************************
+       * Consumes a number.
+       * @return the number.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not NUMBER.
+       ************************************************************************/
+      public double nextDouble() throws IOException {
+
+         return nextNumber().doubleValue();
+      }
+      /*************************************************************************
+       * Consumes a boolean.
+       * @return the boolean.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not BOOLEAN.
+       ************************************************************************/
+      public boolean nextBoolean() throws IOException {
+
+         consume(Token.BOOLEAN);
+         final Boolean result = this.firstChar == 't' ? parseTrue() : parseFalse();
+         this.pending = recentChar;
+         return result;
+      }
+      /*************************************************************************
+       * Consumes a null.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if the next token is not NULL.
+       ************************************************************************/
+      public void nextNull() throws IOException {
+
+         consume(Token.NULL);
+         parseNull();
+         this.pending = recentChar;
+      }
+      /*************************************************************************
+       * Skips the next value together with all its nested values, or a name 
+       * together with its value. Strings are validated but not created.
+       * @throws IOException if input error occurs.
+       * @throws IllegalStateException if there is no value to skip.
+       ************************************************************************/
+      public void skipValue() throws IOException {
+
+         int level = 0;
+         do {
+            switch (peek()) {
+               case BEGIN_OBJECT:
+                  beginObject();
+                  ++level;
+                  break;
+               case BEGIN_ARRAY:
+                  beginArray();
+                  ++level;
+                  break;
+               case END_OBJECT:
+                  endObject();
+                  --level;
+                  break;
+               case END_ARRAY:
+                  endArray();
+                  --level;
+                  break;
+               case NAME:
+                  this.peeked = null;
+                  skipString();
+                  this.pending = recentChar;
+                  if (level == 0) {
+                     skipValue(); // skip the member value too
+                  }
+                  break;
+               case STRING:
+                  this.peeked = null;
+                  skipString();
+                  this.pending = recentChar;
+                  break;
+               case NUMBER:
+                  nextNumber();
+                  break;
+               case BOOLEAN:
+                  nextBoolean();
+                  break;
+               case NULL:
+                  nextNull();
+                  break;
+               default:
+                  throw new IllegalStateException("No value to skip.");
+            }
+         } while (level > 0);
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private void consume(final Token expected) throws IOException {
+
+         final Token token = peek();
+         if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was "
+                  + token + ".");
+         }
+         this.peeked = null;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private void push(final int state) {
+
+         if (this.depth == this.stack.length) {
+            this.stack = copyOf(this.stack, 2 * this.depth);
+         }
+         this.stack[this.depth++] = state;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private Token advance() throws IOException {
+
+         final int top = this.depth - 1;
+         int chr;
+         switch (this.stack[top]) {
+            case EMPTY_ARRAY:
+               chr = next();
+               if (chr == ']') {
+                  return Token.END_ARRAY;
+               }
+               this.stack[top] = NONEMPTY_ARRAY;
+               return valueToken(chr);
+            case NONEMPTY_ARRAY:
+               chr = next();
+               if (chr == ']') {
+                  return Token.END_ARRAY;
+               }
+               if (chr != ',') {
+                  throwUnexpected(chr);
+               }
+               return valueToken(next());
+            case EMPTY_OBJECT:
+               chr = next();
+               if (chr == '}') {
+                  return Token.END_OBJECT;
+               }
+               return nameToken(chr);
+            case NONEMPTY_OBJECT:
+               chr = next();
+               if (chr == '}') {
+                  return Token.END_OBJECT;
+               }
+               if (chr != ',') {
+                  throwUnexpected(chr);
+               }
+               return nameToken(next());
+            case DANGLING_NAME:
+               chr = next();
+               if (chr != ':') {
+                  throwUnexpected(chr);
+               }
+               this.stack[top] = NONEMPTY_OBJECT;
+               return valueToken(next());
+            case EMPTY_DOCUMENT:
+               this.stack[top] = NONEMPTY_DOCUMENT;
+               return valueToken(next());
+            default:
+               if (this.pending >= 0) {
+                  --inputIndex; // leave the input following the value unconsumed
+                  this.pending = NONE;
+               }
+               return Token.END_DOCUMENT;
+         }
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private Token valueToken(final int chr) throws IOException {
+
+         this.firstChar = chr;
+         switch (chr) {
+            case '{':
+               return Token.BEGIN_OBJECT;
+            case '[':
+               return Token.BEGIN_ARRAY;
+            case '"':
+               return Token.STRING;
+            case 't':
+            case 'f':
+               return Token.BOOLEAN;
+            case 'n':
+               return Token.NULL;
+            case '-':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+            case '0':
+               return Token.NUMBER;
+            default:
+               throwUnexpected(chr);
+               return null;
+         }
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private Token nameToken(final int chr) throws IOException {
+
+         if (chr != '"') {
+            throwUnexpected(chr);
+         }
+         this.stack[this.depth - 1] = DANGLING_NAME;
+         return Token.NAME;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private int next() throws IOException {
+
+         int chr = this.pending;
+         if (chr == NONE) {
+            chr = read();
+         } else {
+            this.pending = NONE;
+         }
+         return consumeWhitespace(chr);
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private final static int NONE = -2;
+      private final static int EMPTY_DOCUMENT = 0;
+      private final static int NONEMPTY_DOCUMENT = 1;
+      private final static int EMPTY_ARRAY = 2;
+      private final static int NONEMPTY_ARRAY = 3;
+      private final static int EMPTY_OBJECT = 4;
+      private final static int DANGLING_NAME = 5;
+      private final static int NONEMPTY_OBJECT = 6;
+
+      private int[] stack;
+      private int depth;
+      private Token peeked;
+      private int firstChar;
+      private int pending = NONE;
+      private Object value;
+   }
+   /****************************************************************************
+    * Reader of newline delimited JSON (JSON Lines) text returning one value 
+    * per line. Any JSON value (not only objects and arrays) is accepted as 
+    * a record. Blank lines are skipped, and a record followed by anything 
+    * other than whitespace on the same line is reported as unexpected 
+    * character. Duplicated keys are reported in the same way as by parse.
+    * This class is not thread safe.
+    * @author lukasz.bownik@gmail.com
+    ***************************************************************************/
+   public final class LineReader implements Closeable {
+
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private LineReader(final Closeable source) {
+
+         this.source = source;
+      }
+      /*************************************************************************
+       * Checks if there are more records.
+       * @return true if another record follows.
+       * @throws IOException if input error occurs.
+       ************************************************************************/
+      public boolean hasNext() throws IOException {
+
+         if (!this.ended) {
+            int chr = read();
+            while (isWhitespace(chr)) {
+               chr = read();
+            }
+            if (chr == -1) {
+               this.ended = true;
+            } else {
+               --inputIndex; // unread the first character of the record
             }
-            throwUnexpected(currentChar);
-         }
-      } else if (currentChar == 'e' | currentChar == 'E') {
-         // integer or float with exponent
-         currentChar = read();
-         int expSignum = 1;
-         if (currentChar == '+') {
-            currentChar = read();
          }
-         if (currentChar == '-') {
-            expSignum = -1;
-            currentChar = read();
+         return !this.ended;
+      }
+      /*************************************************************************
+       * Parses the next record.
+       * @return java.util.HashMap, java.util.ArrayList, String, Long, Double,
+       *    Boolean or null.
+       * @throws IOException if input error occurs.
+       * @throws primitive.json.UnexpectedCharacterException if malformed JSON 
+       * is encountered.
+       * @throws primitive.json.DuplicatedKeyException if JSON object with two 
+       * same kays is encountered
+       * @throws NoSuchElementException if there are no more records.
+       ************************************************************************/
+      public Object next() throws IOException {
+
+         if (!hasNext()) {
+            throw new NoSuchElementException();
          }
-         if (currentChar == -1) {
-            throw new EOFException();
+         final Object result = parseRootValue(read());
+         int chr = recentChar;
+         while (chr == ' ' | chr == '\t' | chr == '\r') {
+            chr = read();
          }
-         if (!isDigit(currentChar)) {
-            throwUnexpected(currentChar);
+         if (chr != '\n' & chr != -1) {
+            throwUnexpected(chr);
          }
-         long exponent = (currentChar - '0');
-         currentChar = read();
+         return result;
+      }
+      /*************************************************************************
+       * Closes the underlying reader, stream or file, if any.
+       * @throws IOException if input error occurs.
+       ************************************************************************/
+      @Override
+      public void close() throws IOException {
 
-         while (isDigit(currentChar)) {
-            exponent = 10 * exponent + (currentChar - '0');
-            currentChar = read();
+         this.ended = true;
+         if (this.source != null 
+               & (reader == this.source | stream == this.source)) {
+            releaseStreams();
+         } else {
+            releaseInput();
          }
-         if (isEndOfValue(currentChar)) {
-            this.recentChar = currentChar;
-            if (expSignum > 0) {
-               return integer * pow(exponent) * signum;
-            } else {
-               if (exponent == 0) {
-                  return integer * signum;
-               } else {
-                  return integer * 1.0 / pow(exponent) * signum;
-               }
-            }
+         if (this.source != null) {
+            this.source.close();
          }
       }
-      return null;
-   }
 
+      private final Closeable source;
+      private boolean ended;
+   }
    /****************************************************************************
-    * 
+    * Read only view of JSON object created by parseLazy. 
+    * Member keys are decoded when the map is iterated, values are decoded 
+    * when they are first accessed.
+    * @author lukasz.bownik@gmail.com
     ***************************************************************************/
-   private static long pow(long exp) {
+   private final static class LazyObject extends AbstractMap<String, Object> {
 
-      long result = 1;
-      int base = 10;
-      while (exp != 0) {
-         if ((exp & 1) != 0) {
-            result *= base;
-         }
-         exp >>= 1;
-         base *= base;
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      LazyObject(final Parser document, final int slot) {
+
+         this.document = document;
+         this.slot = slot;
       }
-      return result;
-   }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      @Override
+      public int size() {
 
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private String parseString() throws IOException {
+         return keySlots().length;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      @Override
+      public boolean containsKey(final Object key) {
 
-      this.bufIndex = 0;
-      int currentChar;
-      loop:
-      for (;;) {
-         currentChar = read();
-         switch (currentChar) {
-            case -1:
-               throw new EOFException();
-            case '"':
-               break loop;
-            case '\\':
-               parseEscapedCharacter();
-               break;
-            default:
-               append((char) currentChar);
-               break;
-         }
+         return find(key) >= 0;
       }
-      this.recentChar = read();
-      return this.bufIndex > 0 ? new String(this.buffer, 0, this.bufIndex) : "";
-   }
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private void parseEscapedCharacter() throws IOException {
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      @Override
+      public Object get(final Object key) {
 
-      int currentChar = read();
-      switch (currentChar) {
-         case -1:
-            throw new EOFException();
-         case '\\':
-            append('\\');
-            break;
-         case '"':
-            append('\"');
-            break;
-         case '/':
-            append('/');
-            break;
-         case 'b':
-            append('\b');
-            break;
-         case 'f':
-            append('\f');
-            break;
-         case 'n':
-            append('\n');
-            break;
-         case 'r':
-            append('\r');
-            break;
-         case 't':
-            append('\t');
-            break;
-         case 'u':
-            parseHexadecimalCharacter();
-            break;
-         default:
-            throwUnexpected((char) currentChar);
+         final int member = find(key);
+         return member >= 0 ? value(member) : null;
       }
-   }
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private void parseHexadecimalCharacter() throws IOException {
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      @Override
+      public Set<Map.Entry<String, Object>> entrySet() {
 
-      int chr = 0;
-      for (int i = 0; i < 4; ++i) {
-         chr <<= 4;
-         int currentChar = read();
-         if (currentChar >= '0' & currentChar <= '9') {
-            chr += (currentChar - '0');
-         } else if (currentChar >= 'A' & currentChar <= 'F') {
-            chr += (10 + (currentChar - 'A'));
-         } else if (currentChar >= 'a' & currentChar <= 'f') {
-            chr += (10 + (currentChar - 'a'));
-         } else if (currentChar == -1) {
-            throw new EOFException();
-         } else {
-            throwUnexpected(currentChar);
+         return new AbstractSet<Map.Entry<String, Object>>() {
+
+            @Override
+            public int size() {
+
+               return LazyObject.this.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+
+               return new Iterator<Map.Entry<String, Object>>() {
+
+                  @Override
+                  public boolean hasNext() {
+
+                     return this.member < size();
+                  }
+
+                  @Override
+                  public Map.Entry<String, Object> next() {
+
+                     if (!hasNext()) {
+                        throw new NoSuchElementException();
+                     }
+                     final int m = this.member++;
+                     return new SimpleImmutableEntry<>(key(m), value(m));
+                  }
+
+                  private int member;
+               };
+            }
+         };
+      }
+      /*************************************************************************
+       * @return index of the member with the given key or -1.
+       ************************************************************************/
+      private int find(final Object key) {
+
+         if (key instanceof String) {
+            final int[] keys = keySlots();
+            try {
+               for (int i = 0; i < keys.length; ++i) {
+                  if (this.document.keyEquals(keys[i], (String) key)) {
+                     return i;
+                  }
+               }
+            } catch (final IOException e) {
+               throw new UncheckedIOException(e); // never happens
+            }
          }
+         return -1;
       }
-      append((char) chr);
-   }
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private void throwUnexpected(final int chr) throws IOException {
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private String key(final int member) {
 
-      throw new UnexpectedCharacterException(this.position, (char) chr);
-   }
+         try {
+            return this.document.indexedKey(keySlots()[member]);
+         } catch (final IOException e) {
+            throw new UncheckedIOException(e); // never happens
+         }
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private Object value(final int member) {
 
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private static boolean isDigit(final int chr) {
+         if (this.values == null) {
+            this.values = new Object[keySlots().length];
+            Arrays.fill(this.values, UNDECODED);
+         }
+         Object value = this.values[member];
+         if (value == UNDECODED) {
+            try {
+               // the value follows the key and the colon
+               value = this.document.indexedValue(keySlots()[member] + 2);
+            } catch (final IOException e) {
+               throw new UncheckedIOException(e); // never happens
+            }
+            this.values[member] = value;
+         }
+         return value;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private int[] keySlots() {
 
-      return chr >= '0' & chr <= '9';
+         if (this.keySlots == null) {
+            final Parser d = this.document;
+            int[] slots = new int[8];
+            int count = 0;
+            int slot = this.slot + 1;
+            if (slot != d.matching[this.slot]) {
+               for (;;) {
+                  if (count == slots.length) {
+                     slots = copyOf(slots, count * 2);
+                  }
+                  slots[count++] = slot;
+                  slot = d.afterIndexedValue(slot + 2);
+                  if (slot == d.matching[this.slot]) {
+                     break;
+                  }
+                  ++slot; // comma
+               }
+            }
+            this.keySlots = copyOf(slots, count);
+         }
+         return this.keySlots;
+      }
+
+      private final Parser document;
+      private final int slot;
+      private int[] keySlots;
+      private Object[] values;
    }
    /****************************************************************************
-    * 
+    * Read only view of JSON array created by parseLazy. 
+    * Elements are decoded when they are first accessed.
+    * @author lukasz.bownik@gmail.com
     ***************************************************************************/
-   private int consumeWhitespace(int chr) throws IOException {
+   private final static class LazyArray extends AbstractList<Object> 
+         implements RandomAccess {
 
-      while (chr == ' ' | chr == '\b' | chr == '\f' | chr == '\n' | chr == '\r'
-            | chr == '\t') {
-         chr = read();
-      }
-      if (chr == -1) {
-         throw new EOFException();
-      }
-      return chr;
-   }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      LazyArray(final Parser document, final int slot) {
 
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private static boolean isEndOfValue(final int chr) {
+         this.document = document;
+         this.slot = slot;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      @Override
+      public int size() {
 
-      return chr == -1 | chr == ' ' | chr == '\t' | chr == '\n' | chr == '\r'
-            | chr == ']' | chr == '}' | chr == ',' | chr == ':';
-   }
+         return elementSlots().length;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      @Override
+      public Object get(final int index) {
 
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private void append(final char chr) {
+         final int[] slots = elementSlots();
+         if (index < 0 | index >= slots.length) {
+            throw new IndexOutOfBoundsException("index: " + index);
+         }
+         if (this.values == null) {
+            this.values = new Object[slots.length];
+            Arrays.fill(this.values, UNDECODED);
+         }
+         Object value = this.values[index];
+         if (value == UNDECODED) {
+            try {
+               value = this.document.indexedValue(slots[index]);
+            } catch (final IOException e) {
+               throw new UncheckedIOException(e); // never happens
+            }
+            this.values[index] = value;
+         }
+         return value;
+      }
+      /*************************************************************************
+       * 
+       ************************************************************************/
+      private int[] elementSlots() {
 
-      if (this.bufIndex == this.bufferSize) {
-         this.bufferSize *= 2;
-         this.buffer = copyOf(this.buffer, this.bufferSize);
+         if (this.elementSlots == null) {
+            final Parser d = this.document;
+            int[] slots = new int[8];
+            int count = 0;
+            int slot = this.slot + 1;
+            if (slot != d.matching[this.slot]) {
+               for (;;) {
+                  if (count == slots.length) {
+                     slots = copyOf(slots, count * 2);
+                  }
+                  slots[count++] = slot;
+                  slot = d.afterIndexedValue(slot);
+                  if (slot == d.matching[this.slot]) {
+                     break;
+                  }
+                  ++slot; // comma
+               }
+            }
+            this.elementSlots = copyOf(slots, count);
+         }
+         return this.elementSlots;
       }
-      this.buffer[this.bufIndex++] = chr;
-   }
 
+      private final Parser document;
+      private final int slot;
+      private int[] elementSlots;
+      private Object[] values;
+   }
    /****************************************************************************
-    * 
+    * Marker of values of lazy views which were not decoded yet.
     ***************************************************************************/
-   private int read() throws IOException {
-
-      ++this.position;
-      return this.reader.read();
-   }
-
+   private final static Object UNDECODED = new Object();
    /****************************************************************************
-    * 
+    * Marker of values skipped by a projection.
     ***************************************************************************/
-   private Reader reader;
-   private int recentChar = -1;
-   private int position = 0;
-   private char[] buffer;
-   private int bufferSize;
-   private int bufIndex = 0;
-
-   private final int initialVectorSize;
-   private final int initialHashtableSize;
+   private final static Object SKIPPED = new Object();
    /****************************************************************************
     * An exception thrown when parser encounters duplicated JSON object keys.
     * @author lukasz.bownik@gmail.com
@@ -626,7 +4675,7 @@ public final class Parser {
        * @param position posision of unexpected character.
        * @param character unexpected character value (zero based).
        ************************************************************************/
-      UnexpectedCharacterException(final int position, final char character) {
+      UnexpectedCharacterException(final long position, final char character) {
 
          super("Unexpected character '" + character + "' at position " + position + ".");
          this.position = position;
@@ -638,50 +4687,6 @@ public final class Parser {
       /** Unexpected character value.*/
       public final char character;
       /** Position of unexpected character (zero based).*/
-      public final int position;
-   }
-   /****************************************************************************
-    * 
-    ***************************************************************************/
-   private final static class StringReader extends Reader {
-
-      /*************************************************************************
-       * 
-       ************************************************************************/
-      StringReader(final String s) {
-
-         this.s = s;
-         this.length = s.length();
-      }
-
-      /*************************************************************************
-       * 
-       ************************************************************************/
-      public int read() throws IOException {
-
-         return this.pos < this.length ? this.s.charAt(this.pos++) : -1;
-      }
-
-      /*************************************************************************
-       * 
-       ************************************************************************/
-      public int read(final char[] cbuf, int off, final int len)
-            throws IOException {
-
-         return -1; // not implemented
-      }
-
-      /*************************************************************************
-       * 
-       ************************************************************************/
-      public void close() throws IOException {
-      }
-
-      /*************************************************************************
-       * 
-       ************************************************************************/
-      private final String s;
-      private int pos = 0;
-      private final int length;
+      public final long position;
    }
 }
@@ -0,0 +1,185 @@
+package primitive.json;
+
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//-----------------------------------------------------------------------------
+/*******************************************************************************
+ * JSON number kept as its raw text. Returned by Parser when raw numbers are 
+ * enabled. The text is converted only when one of the Number methods is 
+ * called, and it is written by Generator verbatim. The text is a span of 
+ * a char slab shared by numbers parsed by the same parser, so a retained 
+ * number keeps the whole slab reachable.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public final class RawNumber extends Number {
+
+   /****************************************************************************
+    * Creates a number. The text must be a valid JSON number.
+    ***************************************************************************/
+   RawNumber(final char[] slab, final int offset, final int length) {
+
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+   }
+
+   /****************************************************************************
+    * @return true if the text contains no fraction nor exponent.
+    ***************************************************************************/
+   public boolean isInteger() {
+
+      for (int i = this.offset, end = this.offset + this.length; i < end; ++i) {
+         final char chr = this.slab[i];
+         if (chr == '.' | chr == 'e' | chr == 'E') {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /****************************************************************************
+    * @return the value if the number is an integer fitting in a long, 
+    * otherwise doubleValue() converted to long, which is the same as 
+    * longValue() of the number returned by Parser in the default mode.
+    ***************************************************************************/
+   @Override
+   public long longValue() {
+
+      if (!isInteger()) {
+         return (long) doubleValue();
+      }
+      final char[] slab = this.slab;
+      final int end = this.offset + this.length;
+      int i = this.offset;
+      final boolean negative = slab[i] == '-';
+      if (negative) {
+         ++i;
+      }
+      // accumulated negatively, so that Long.MIN_VALUE fits
+      long value = 0;
+      for (; i < end; ++i) {
+         final int digit = slab[i] - '0';
+         if (value < Long.MIN_VALUE / 10 
+               || value * 10 < Long.MIN_VALUE + digit) {
+            return (long) doubleValue();
+         }
+         value = value * 10 - digit;
+      }
+      if (!negative) {
+         if (value == Long.MIN_VALUE) {
+            return (long) doubleValue();
+         }
+         return -value;
+      }
+      return value;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   public int intValue() {
+
+      return (int) longValue();
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   public double doubleValue() {
+
+      return Double.parseDouble(toString());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   public float floatValue() {
+
+      return (float) doubleValue();
+   }
+
+   /****************************************************************************
+    * @return length of the raw text.
+    ***************************************************************************/
+   int length() {
+
+      return this.length;
+   }
+
+   /****************************************************************************
+    * Copies the raw text to dst starting at index.
+    * @return index following the copied text.
+    ***************************************************************************/
+   int getChars(final char[] dst, final int index) {
+
+      System.arraycopy(this.slab, this.offset, dst, index, this.length);
+      return index + this.length;
+   }
+
+   /****************************************************************************
+    * @return the raw text.
+    ***************************************************************************/
+   @Override
+   public String toString() {
+
+      return new String(this.slab, this.offset, this.length);
+   }
+
+   /****************************************************************************
+    * @return true if obj is a RawNumber with the same text.
+    ***************************************************************************/
+   @Override
+   public boolean equals(final Object obj) {
+
+      if (this == obj) {
+         return true;
+      }
+      if (!(obj instanceof RawNumber)) {
+         return false;
+      }
+      final RawNumber other = (RawNumber) obj;
+      if (this.length != other.length) {
+         return false;
+      }
+      for (int i = 0; i < this.length; ++i) {
+         if (this.slab[this.offset + i] != other.slab[other.offset + i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   public int hashCode() {
+
+      int hash = 0;
+      for (int i = this.offset, end = this.offset + this.length; i < end; ++i) {
+         hash = 31 * hash + this.slab[i];
+      }
+      return hash;
+   }
+
+   private final static long serialVersionUID = 1L;
+
+   private final char[] slab;
+   private final int offset;
+   private final int length;
+}
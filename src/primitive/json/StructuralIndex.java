@@ -0,0 +1,177 @@
+package primitive.json;
+
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//-----------------------------------------------------------------------------
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+/*******************************************************************************
+ * Index of structural characters of UTF-8 encoded JSON text. 
+ * The index contains positions of {}[]:, characters outside strings, of 
+ * opening quotes of strings and of first characters of numbers and 
+ * literals. It is built in blocks of 64 bytes, each byte classified eight
+ * at a time within a long word, so there is no branching on individual 
+ * characters. Backslashes are the only characters examined one by one and
+ * only blocks containing them are affected.
+ * This class is not thread safe but can be reused.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+final class StructuralIndex {
+
+   /****************************************************************************
+    * Builds the index. Positions are indexes of the bytes array. 
+    * Nothing is validated, in particular an unterminated string is left to
+    * be reported by the lexer, which fails at the end of the text or earlier.
+    ***************************************************************************/
+   void build(final byte[] bytes, final int offset, final int length) {
+
+      final ByteBuffer words = ByteBuffer.wrap(bytes).order(LITTLE_ENDIAN);
+      final int end = offset + length;
+      this.count = 0;
+      this.inString = 0;
+      this.escaped = 0;
+      this.scalar = 0;
+
+      int block = offset;
+      for (; block <= end - 64; block += 64) {
+         index(words, block, block);
+      }
+      if (block < end) {
+         fill(this.tail, (byte) ' ');
+         System.arraycopy(bytes, block, this.tail, 0, end - block);
+         index(this.tailWords, 0, block);
+      }
+   }
+
+   /****************************************************************************
+    * Indexes one block of 64 bytes.
+    * @param words block bytes.
+    * @param index index of the block in words.
+    * @param base position of the first byte of the block.
+    ***************************************************************************/
+   private void index(final ByteBuffer words, final int index, final int base) {
+
+      long quote = 0;
+      long backslash = 0;
+      long whitespace = 0;
+      long operator = 0;
+      for (int i = 0; i < 8; ++i) {
+         final long word = words.getLong(index + (i << 3));
+         final long lower = word | 0x2020202020202020L;
+         final int shift = i << 3;
+         quote |= bits(equal(word, '"')) << shift;
+         backslash |= bits(equal(word, '\\')) << shift;
+         whitespace |= bits(equal(word, ' ') | equal(word, '\t') | equal(word, '\n')
+               | equal(word, '\r') | equal(word, '\b') | equal(word, '\f')) << shift;
+         // '[' and ']' differ from '{' and '}' only by the 0x20 bit
+         operator |= bits(equal(lower, '{') | equal(lower, '}') | equal(word, ':')
+               | equal(word, ',')) << shift;
+      }
+      if ((backslash | this.escaped) != 0) {
+         quote &= ~escapedCharacters(backslash);
+      }
+      final long inString = prefixXor(quote) ^ this.inString;
+      this.inString = inString >> 63;
+
+      final long stringTail = inString ^ quote;
+      final long scalar = ~(operator | whitespace);
+      final long nonQuoteScalar = scalar & ~quote;
+      final long followsScalar = (nonQuoteScalar << 1) | this.scalar;
+      this.scalar = nonQuoteScalar >>> 63;
+
+      long structural = (operator | (scalar & ~followsScalar)) & ~stringTail;
+      if (this.count > this.positions.length - 64) {
+         this.positions = copyOf(this.positions, this.positions.length * 2);
+      }
+      final int[] positions = this.positions;
+      int count = this.count;
+      while (structural != 0) {
+         positions[count++] = base + Long.numberOfTrailingZeros(structural);
+         structural &= structural - 1;
+      }
+      this.count = count;
+   }
+
+   /****************************************************************************
+    * @return mask of characters preceded by an odd number of backslashes.
+    ***************************************************************************/
+   private long escapedCharacters(long backslash) {
+
+      long escaped = this.escaped;
+      this.escaped = 0;
+      while (backslash != 0) {
+         final long bit = backslash & -backslash;
+         backslash ^= bit;
+         if ((escaped & bit) == 0) {
+            if (bit == Long.MIN_VALUE) {
+               this.escaped = 1;
+            } else {
+               escaped |= bit << 1;
+            }
+         }
+      }
+      return escaped;
+   }
+
+   /****************************************************************************
+    * @return a word with the high bit of each byte set if the byte is equal to
+    * the character and all other bits cleared.
+    ***************************************************************************/
+   private static long equal(final long word, final char chr) {
+
+      final long x = word ^ (chr * 0x0101010101010101L);
+      return ~(((x & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL) | x)
+            & 0x8080808080808080L;
+   }
+
+   /****************************************************************************
+    * @return the high bits of bytes of the word gathered into the lowest 
+    * eight bits.
+    ***************************************************************************/
+   private static long bits(final long highBits) {
+
+      return ((highBits >>> 7) * 0x0102040810204080L) >>> 56;
+   }
+
+   /****************************************************************************
+    * @return a mask which each bit is the parity of all bits of x up to and
+    * including that bit.
+    ***************************************************************************/
+   private static long prefixXor(long x) {
+
+      x ^= x << 1;
+      x ^= x << 2;
+      x ^= x << 4;
+      x ^= x << 8;
+      x ^= x << 16;
+      x ^= x << 32;
+      return x;
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   int[] positions = new int[256];
+   int count;
+
+   private final byte[] tail = new byte[64];
+   private final ByteBuffer tailWords = ByteBuffer.wrap(this.tail).order(LITTLE_ENDIAN);
+   private long inString;
+   private long escaped;
+   private long scalar;
+}
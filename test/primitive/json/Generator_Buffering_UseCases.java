@@ -0,0 +1,187 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Generator_Buffering_UseCases extends Generator_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesSameText_ToAllKindsOfOutput()
+           throws Exception {
+
+      final List<Object> value = largeList();
+      final Generator generator = new Generator();
+      final String expected = generator.toString(value);
+
+      final StringBuilder builder = new StringBuilder();
+      generator.write(value, builder);
+      assertEquals(expected, builder.toString());
+
+      final StringWriter writer = new StringWriter();
+      generator.write(value, writer);
+      assertEquals(expected, writer.toString());
+
+      final CharBuffer buffer = CharBuffer.allocate(expected.length());
+      generator.write((Object) value, buffer);
+      assertEquals(0, buffer.remaining());
+
+      assertEquals(expected, new String(generator.toCharArray(value)));
+      assertEquals(expected, generator.toCharBuffer(value).toString());
+      assertEquals("[1,2]", generator.toString(asList(1, 2)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void flushesInBlocks_ToWriter()
+           throws Exception {
+
+      final int[] writes = new int[1];
+      final StringWriter target = new StringWriter();
+      final Writer writer = new Writer() {
+         @Override
+         public void write(final char[] chars, final int offset,
+                 final int length) {
+            ++writes[0];
+            target.write(chars, offset, length);
+         }
+         @Override
+         public void flush() {
+         }
+         @Override
+         public void close() {
+         }
+      };
+      final List<Object> value = largeList();
+      new Generator().write(value, writer);
+
+      final int length = target.toString().length();
+      assertTrue(length > 8192);
+      assertTrue(writes[0] <= length / 4096 + 1);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void worksProperly_AfterOutputFailure()
+           throws Exception {
+
+      final Generator generator = new Generator();
+      final Writer writer = new Writer() {
+         @Override
+         public void write(final char[] chars, final int offset,
+                 final int length) throws IOException {
+            throw new IOException();
+         }
+         @Override
+         public void flush() {
+         }
+         @Override
+         public void close() {
+         }
+      };
+      try {
+         generator.write(largeList(), writer);
+         fail();
+      } catch (final IOException e) {
+         // expected
+      }
+      assertEquals("[\"a\"]", generator.toString(asList("a")));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForNullArguments()
+           throws Exception {
+
+      final Generator generator = new Generator();
+      try {
+         generator.write(asList(1), null);
+         fail();
+      } catch (final NullPointerException e) {
+         assertEquals("out", e.getMessage());
+      }
+      try {
+         generator.toCharArray(null);
+         fail();
+      } catch (final NullPointerException e) {
+         assertEquals("value", e.getMessage());
+      }
+      assertIllegalArgumentException(() -> generator.toCharBuffer("a"));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void escapesLongStrings_AcrossBufferBoundaries()
+           throws Exception {
+
+      final StringBuilder value = new StringBuilder();
+      final StringBuilder expected = new StringBuilder("[\"");
+      for (int i = 0; i < 3000; ++i) {
+         value.append("abcdefg\"\u0001");
+         expected.append("abcdefg\\\"\\u0001");
+      }
+      value.append("end");
+      expected.append("end\"]");
+      final Generator generator = new Generator();
+
+      final StringWriter writer = new StringWriter();
+      generator.write(asList(value.toString()), writer);
+      assertEquals(expected.toString(), writer.toString());
+      assertEquals(expected.toString(), 
+              generator.toString(asList(value.toString())));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private List<Object> largeList() throws Exception {
+
+      final List<Object> result = new ArrayList<>();
+      for (int i = 0; i < 5000; ++i) {
+         result.add(asList(i * 1234567L, "text \"" + i + "\"\n", i / 7.0,
+                 asMap("k" + i, i % 2 == 0)));
+      }
+      final StringBuilder longString = new StringBuilder();
+      for (int i = 0; i < 20000; ++i) {
+         longString.append((char) ('a' + i % 26));
+      }
+      result.add(longString.toString());
+      return result;   }
+}
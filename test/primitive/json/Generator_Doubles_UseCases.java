@@ -0,0 +1,114 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Generator_Doubles_UseCases extends Generator_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesShortestRepresentation_ForDoubles()
+           throws Exception {
+
+      assertListEquals("[1.1,0.1,-0.5,-0.0,100.0,0.001,1.0E-4,9999999.0,"
+              + "1.0E7,1.0E23,4.9E-324,1.7976931348623157E308]",
+              asList(1.1, 0.1, -0.5, -0.0, 100.0, 0.001, 1e-4, 9999999.0,
+                      1e7, 1e23, Double.MIN_VALUE, Double.MAX_VALUE));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesShortestRepresentation_ForFloats()
+           throws Exception {
+
+      assertListEquals("[1.1,0.1,3.4028235E38,1.4E-45]",
+              asList(1.1f, 0.1f, Float.MAX_VALUE, Float.MIN_VALUE));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesDoublesParsedBackExactly_WithNoShorterAlternative()
+           throws Exception {
+
+      final Generator generator = new Generator();
+      final Parser parser = new Parser();
+      final Random random = new Random(3);
+      for (int i = 0; i < 100000; ++i) {
+         final double value = Double.longBitsToDouble(random.nextLong());
+         if (Double.isNaN(value) | Double.isInfinite(value)) {
+            continue;
+         }
+         final String json = generator.toString(asList(value));
+         final Object parsed = ((List) parser.parse(json)).get(0);
+         assertEquals(json, (Object) value, parsed);
+
+         final String number = json.substring(1, json.length() - 1);
+         final int digits = new BigDecimal(number).stripTrailingZeros()
+                 .precision();
+         if (digits > 1) {
+            final double shorter = new BigDecimal(value).round(new MathContext(
+                    digits - 1, RoundingMode.HALF_EVEN)).doubleValue();
+            assertTrue(json, shorter != value);
+         }
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesFixedPrecision_WhenSignificantDigitsAreSet()
+           throws Exception {
+
+      final Generator generator = new Generator();
+      generator.setSignificantDigits(3);
+
+      assertEquals("[1.23,1000.0,1.23E-4,1230000.0,1.0,0.5]", generator.toString(
+              asList(1.23456, 999.6, 0.00012345, 1234567.0, 1.0, 0.5f)));
+      // rounded from the exact binary value, not from the shortest digits
+      assertEquals("[9.99,0.123,0.125,99.9,1.0E23]", generator.toString(
+              asList(9.995, 0.1235, 0.125, 99.95f, 1e23)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForIllegalSignificantDigits()
+           throws Exception {
+
+      assertIllegalArgumentException(() -> new Generator().setSignificantDigits(-1));
+      assertIllegalArgumentException(() -> new Generator().setSignificantDigits(18));
+   }
+}
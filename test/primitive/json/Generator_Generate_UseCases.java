@@ -88,8 +88,8 @@ public class Generator_Generate_UseCases extends Generator_UseCasesBase {
       assertMapEquals("{\"a\":0.0}", asMap("a", 0.0));
       assertMapEquals("{\"a\":1.0}", asMap("a", 1.0));
       assertMapEquals("{\"a\":-1.0}", asMap("a", -1.0));
-      assertMapEquals("{\"a\":-123.45600000000000}", asMap("a", -123.456));
-      assertMapEquals("{\"a\":456.12345678901232}", asMap("a", 456.123456789012345)); //the last digit does not fit - ok
+      assertMapEquals("{\"a\":-123.456}", asMap("a", -123.456));
+      assertMapEquals("{\"a\":456.1234567890123}", asMap("a", 456.123456789012345)); //the last digit does not fit - ok
       assertMapEquals("{\"a\":0}", asMap("a", 0));
       assertMapEquals("{\"a\":[]}", asMap("a", new ArrayList()));
       assertMapEquals("{\"a\":{}}", asMap("a", new HashMap()));
@@ -120,7 +120,8 @@ public class Generator_Generate_UseCases extends Generator_UseCasesBase {
       assertListEquals("[\"\\\\\"]", asList("\\"));
       assertListEquals("[\"\\b\\f\\n\\r\\t\\/\"]", asList("\b\f\n\r\t/"));
       assertListEquals("[\"ąćśźżł\"]", asList("ąćśźżł"));
-      assertListEquals("[\"\u0000\u0002\"]", asList("\u0000\u0002"));
+      assertListEquals("[\"\\u0000\\u0002\"]", asList("\u0000\u0002"));
+      assertListEquals("[\"a\\u000Bb\\u001Fc\u007f\"]", asList("a\u000bb\u001fc\u007f"));
       assertListEquals("[1]", asList(1));
       assertListEquals("[1]", asList((long)1));
       assertListEquals("[1]", asList((short)1));
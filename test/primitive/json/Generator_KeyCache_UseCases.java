@@ -0,0 +1,143 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Generator_KeyCache_UseCases extends Generator_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesSameText_WithKeyCache() throws Exception {
+
+      final Generator generator = new Generator();
+      generator.setKeyCacheSize(16);
+
+      for (int i = 0; i < 3; ++i) {
+         assertEquals("{\"a\":1}", generator.toString(asMap("a", 1)));
+         assertEquals("{\"a\\\"\\n\\u0001\":[{\"b\":true}]}", 
+               generator.toString(asMap("a\"\n\u0001", 
+                     asList(asMap("b", true)))));
+         final Map<Object, Object> map = new LinkedHashMap<>();
+         map.put(7, "x");
+         map.put(new StringBuilder("sb"), "y");
+         assertEquals("{\"7\":\"x\",\"sb\":\"y\"}", generator.toString(map));
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesSameText_WhenKeysAreEvicted() throws Exception {
+
+      final Generator cached = new Generator();
+      cached.setKeyCacheSize(2);
+      final Generator uncached = new Generator();
+      final List<Object> records = new ArrayList<>();
+      for (int i = 0; i < 1000; ++i) {
+         final Map<String, Object> record = new LinkedHashMap<>();
+         for (int k = 0; k < 15; ++k) {
+            record.put("key" + (i * k % 40), k);
+         }
+         record.put(longKey(i % 3), i);
+         records.add(record);
+      }
+
+      final String expected = uncached.toString(records);
+      assertEquals(expected, cached.toString(records));
+      final StringWriter out = new StringWriter();
+      cached.write(records, out);
+      assertEquals(expected, out.toString());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesCachedNames_WithStreamWriter() throws Exception {
+
+      final Generator generator = new Generator();
+      generator.setKeyCacheSize(4);
+      final StringBuilder out = new StringBuilder();
+      final Generator.StreamWriter writer = generator.writer(out);
+      writer.beginArray();
+      for (int i = 0; i < 2; ++i) {
+         writer.beginObject();
+         writer.name("t");
+         writer.value(i);
+         writer.name("é");
+         writer.value(i);
+         writer.endObject();
+      }
+      writer.endArray();
+      writer.close();
+
+      assertEquals("[{\"t\":0,\"é\":0},{\"t\":1,\"é\":1}]", 
+            out.toString());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void disablesKeyCache_ForZeroSize() throws Exception {
+
+      final Generator generator = new Generator();
+      generator.setKeyCacheSize(8);
+      generator.setKeyCacheSize(0);
+
+      assertEquals("{\"a\":1}", generator.toString(asMap("a", 1)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIllegalArgumentException_ForInvalidSize() 
+           throws Exception {
+
+      final Generator generator = new Generator();
+
+      assertIllegalArgumentException(() -> generator.setKeyCacheSize(-1));
+      assertIllegalArgumentException(
+            () -> generator.setKeyCacheSize((1 << 30) + 1));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private String longKey(final int i) {
+
+      final StringBuilder result = new StringBuilder();
+      for (int k = 0; k < 70; ++k) {
+         result.append((char) ('a' + (i + k) % 26));
+      }
+      return result.toString();
+   }
+}
@@ -0,0 +1,67 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.Random;
+import org.junit.Test;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Generator_Longs_UseCases extends Generator_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesIntegers_ForBoundaryValues()
+           throws Exception {
+
+      assertListEquals("[0,-1,9,10,-99,100,-101,2147483647,-2147483648,"
+              + "-2147483649,9223372036854775807,-9223372036854775808]",
+              asList(0, -1, 9L, 10L, -99, 100L, (short) -101, Integer.MAX_VALUE,
+                      Integer.MIN_VALUE, -2147483649L, Long.MAX_VALUE,
+                      Long.MIN_VALUE));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesSameText_AsLongToString()
+           throws Exception {
+
+      final Generator generator = new Generator();
+      final Random random = new Random(5);
+      for (int i = 0; i < 100000; ++i) {
+         final long value = random.nextLong() >> random.nextInt(64);
+         final String expected = "[" + value + "]";
+         assertEquals(expected, generator.toString(asList(value)));
+
+         final StringWriter writer = new StringWriter();
+         generator.write(asList(value), writer);
+         assertEquals(expected, writer.toString());
+
+         final CharBuffer buffer = CharBuffer.allocate(32);
+         generator.write(asList(value), buffer);
+         assertEquals(expected, buffer.flip().toString());
+      }
+   }
+}
@@ -0,0 +1,229 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Generator_StreamWriter_UseCases extends Generator_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesNestedValues() throws Exception {
+
+      final StringBuilder out = new StringBuilder();
+      final Generator.StreamWriter writer = new Generator().writer(out);
+
+      writer.beginObject();
+      writer.name("a");
+      writer.value(1);
+      writer.name("b\"");
+      writer.beginArray();
+      writer.value(-2.5);
+      writer.value(0.1f);
+      writer.value(Double.NaN);
+      writer.value(true);
+      writer.value("x\ny");
+      writer.value((CharSequence) null);
+      writer.nullValue();
+      writer.beginObject();
+      writer.endObject();
+      writer.beginArray();
+      writer.endArray();
+      writer.value(asList(1, "z"));
+      writer.endArray();
+      writer.name("c");
+      writer.value(Long.MIN_VALUE);
+      writer.endObject();
+      writer.close();
+
+      assertEquals("{\"a\":1,\"b\\\"\":[-2.5,0.1,null,true,\"x\\ny\",null,"
+            + "null,{},[],[1,\"z\"]],\"c\":-9223372036854775808}", 
+            out.toString());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesAnyValue_AtTopLevel() throws Exception {
+
+      final Generator generator = new Generator();
+      final StringBuilder out = new StringBuilder();
+      final Generator.StreamWriter writer = generator.writer(out);
+      writer.value("abc");
+      writer.close();
+
+      assertEquals("\"abc\"", out.toString());
+      assertEquals("[1]", generator.toString(asList(1)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesSameText_AsGenerator() throws Exception {
+
+      final List<Object> expected = new ArrayList<>();
+      final Generator generator = new Generator();
+      final StringWriter out = new StringWriter();
+      final Generator.StreamWriter writer = generator.writer(out);
+
+      writer.beginArray();
+      for (int i = 0; i < 20000; ++i) {
+         writer.beginArray();
+         writer.value(i);
+         writer.value(i / 8.0);
+         writer.value("żółw " + i);
+         writer.endArray();
+         expected.add(asList(i, i / 8.0, "żółw " + i));
+      }
+      writer.endArray();
+      writer.close();
+
+      assertEquals(generator.toString(expected), out.toString());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesUtf8_ToStream() throws Exception {
+
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final Generator.StreamWriter writer = new Generator().writerUtf8(out);
+      writer.beginObject();
+      writer.name("€");
+      writer.value("😀");
+      writer.endObject();
+      writer.flush();
+
+      assertEquals("{\"€\":\"😀\"}", 
+            new String(out.toByteArray(), UTF_8));
+      writer.close();
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIllegalStateException_ForCallsOutOfOrder() 
+           throws Exception {
+
+      final Generator.StreamWriter writer = new Generator().writer(
+            new StringBuilder());
+
+      assertIllegalState(() -> writer.endObject());
+      assertIllegalState(() -> writer.endArray());
+      assertIllegalState(() -> writer.name("a"));
+      writer.beginObject();
+      assertIllegalState(() -> writer.value(1));
+      assertIllegalState(() -> writer.endArray());
+      writer.name("a");
+      assertIllegalState(() -> writer.name("b"));
+      assertIllegalState(() -> writer.endObject());
+      writer.beginArray();
+      assertIllegalState(() -> writer.name("b"));
+      assertIllegalState(() -> writer.endObject());
+      writer.endArray();
+      writer.endObject();
+      assertIllegalState(() -> writer.value(1));
+      assertIllegalState(() -> writer.beginArray());
+      writer.close();
+      assertIllegalState(() -> writer.value(1));
+      assertIllegalState(() -> writer.flush());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIOException_ForIncompleteDocument() throws Exception {
+
+      final Generator generator = new Generator();
+      final StringBuilder out = new StringBuilder();
+      final Generator.StreamWriter writer = generator.writer(out);
+      writer.beginArray();
+      try {
+         writer.close();
+         fail();
+      } catch (final IOException e) {
+         assertEquals("Incomplete document.", e.getMessage());
+      }
+      assertEquals("[", out.toString());
+      assertEquals("[1]", generator.toString(asList(1)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsNullPointerException_ForNullArguments() 
+           throws Exception {
+
+      final Generator generator = new Generator();
+      try {
+         generator.writer(null);
+         fail();
+      } catch (final NullPointerException e) {
+         assertEquals("out", e.getMessage());
+      }
+      final Generator.StreamWriter writer = generator.writer(
+            new StringBuilder());
+      writer.beginObject();
+      try {
+         writer.name(null);
+         fail();
+      } catch (final NullPointerException e) {
+         assertEquals("name", e.getMessage());
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertIllegalState(final Call call) throws Exception {
+
+      try {
+         call.run();
+         fail();
+      } catch (final IllegalStateException e) {
+         assertTrue(true);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private interface Call {
+
+      void run() throws Exception;
+   }
+}
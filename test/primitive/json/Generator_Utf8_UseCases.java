@@ -0,0 +1,170 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Generator_Utf8_UseCases extends Generator_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void encodesAllKindsOfCharacters() throws Exception {
+
+      final Generator generator = new Generator();
+
+      assertUtf8(generator, asList("abc", 1, 2.5, true, null));
+      assertUtf8(generator, asList("\u00e9\u00df", "\u20ac\u4e2d"));
+      assertUtf8(generator, asList("\ud83d\ude00", "a\ud834\udd1eb"));
+      assertUtf8(generator, asMap("\u0142\u00f3d\u017a", "\ud83d\ude00"));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void encodesSurrogatePairs_AcrossBufferBoundaries() throws Exception {
+
+      final Generator generator = new Generator();
+      for (int length = 8180; length < 8200; ++length) {
+         final char[] padding = new char[length];
+         Arrays.fill(padding, 'x');
+         assertUtf8(generator, asList(new String(padding), "\ud83d\ude00\u20ac"));
+      }
+      assertUtf8(generator, largeList());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void replacesUnpairedSurrogates() {
+
+      final Generator generator = new Generator();
+
+      assertEquals("[\"a?b?\"]", new String(generator.toUtf8(
+            asList("a\ud83db\ude00")), UTF_8));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void writesSameBytes_ToAllKindsOfOutput() throws Exception {
+
+      final List<Object> value = largeList();
+      final Generator generator = new Generator();
+      final byte[] expected = generator.toString(value).getBytes(UTF_8);
+
+      final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      generator.writeUtf8(value, stream);
+      assertTrue(Arrays.equals(expected, stream.toByteArray()));
+
+      final ByteArrayOutputStream printed = new ByteArrayOutputStream();
+      generator.writeUtf8(value, new PrintStream(printed, false, "ISO-8859-1"));
+      assertTrue(Arrays.equals(expected, printed.toByteArray()));
+
+      final ByteArrayOutputStream channel = new ByteArrayOutputStream();
+      generator.writeUtf8(value, Channels.newChannel(channel));
+      assertTrue(Arrays.equals(expected, channel.toByteArray()));
+
+      final ByteBuffer heap = ByteBuffer.allocate(expected.length + 10);
+      heap.put((byte) '#');
+      generator.writeUtf8(value, heap);
+      assertEquals(expected.length + 1, heap.position());
+      assertEquals('#', heap.get(0));
+      assertTrue(Arrays.equals(expected, Arrays.copyOfRange(heap.array(), 1,
+            heap.position())));
+
+      final ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+      generator.writeUtf8(value, direct);
+      assertEquals(0, direct.remaining());
+      direct.flip();
+      final byte[] bytes = new byte[direct.remaining()];
+      direct.get(bytes);
+      assertTrue(Arrays.equals(expected, bytes));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsBufferOverflow_ForTooSmallBuffer() throws Exception {
+
+      final Generator generator = new Generator();
+      try {
+         generator.writeUtf8(largeList(), ByteBuffer.allocate(100));
+         fail();
+      } catch (final BufferOverflowException e) {
+         assertTrue(true);
+      }
+      assertEquals("[1,\"\u20ac\"]", new String(generator.toUtf8(
+            asList(1, "\u20ac")), UTF_8));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsNullPointerException_ForNullOutput() {
+
+      final Generator generator = new Generator();
+      try {
+         generator.writeUtf8(asList(1), (ByteBuffer) null);
+         fail();
+      } catch (final NullPointerException e) {
+         assertEquals("out", e.getMessage());
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertUtf8(final Generator generator, final Object value) {
+
+      final byte[] expected = generator.toString(value).getBytes(UTF_8);
+      assertTrue(Arrays.equals(expected, generator.toUtf8(value)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private List<Object> largeList() {
+
+      final List<Object> result = new ArrayList<>();
+      for (int i = 0; i < 5000; ++i) {
+         result.add(asList(i, "\u017c\u00f3\u0142w " + i, "\ud83d\ude00", i * 0.25));
+      }
+      return result;
+   }
+}
@@ -0,0 +1,110 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ExactNumbers_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsBigNumbers_WhenLongIsNotEnough()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setBigNumbers(true);
+
+      final List list = (List) parser.parse("[12, -9223372036854775808, "
+              + "123456789012345678901234567890, -9223372036854775809, "
+              + "1e30, 12.50, -0.1, 1.5e-3, "
+              + "3.14159265358979323846264338327950288]");
+      assertEquals(12L, list.get(0));
+      assertEquals(Long.MIN_VALUE, list.get(1));
+      assertEquals(new BigInteger("123456789012345678901234567890"), list.get(2));
+      assertEquals(new BigInteger("-9223372036854775809"), list.get(3));
+      assertEquals(new BigDecimal("1e30"), list.get(4));
+      assertEquals(new BigDecimal("12.50"), list.get(5));
+      assertEquals(new BigDecimal("-0.1"), list.get(6));
+      assertEquals(new BigDecimal("0.0015"), list.get(7));
+      assertEquals(new BigDecimal("3.14159265358979323846264338327950288"),
+              list.get(8));
+      assertEquals(list, parser.parse(new Generator().toString(list)
+              .getBytes(UTF_8)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsFixedPointLongs_ForExactDecimals()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setFixedPointScale(2);
+
+      final List list = (List) parser.parse("[12.5, -0.01, 3, 1.5e1, 0.0, "
+              + "7e-2, 12.345, 92233720368547758.07, 92233720368547758.08, "
+              + "123456789012345678901234567890]");
+      assertEquals(1250L, list.get(0));
+      assertEquals(-1L, list.get(1));
+      assertEquals(3L, list.get(2));
+      assertEquals(1500L, list.get(3));
+      assertEquals(0L, list.get(4));
+      assertEquals(7L, list.get(5));
+      assertEquals(new BigDecimal("12.345"), list.get(6));
+      assertEquals(Long.MAX_VALUE, list.get(7));
+      assertEquals(new BigDecimal("92233720368547758.08"), list.get(8));
+      assertEquals(new BigInteger("123456789012345678901234567890"), list.get(9));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void doesNotUsePrimitiveArrays_InExactModes()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setPrimitiveArrays(true);
+      parser.setFixedPointScale(1);
+
+      final Object list = parser.parse("[1.5, 2.5]");
+      assertTrue(list instanceof ArrayList);
+      assertEquals(15L, ((List) list).get(0));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForTooLargeScale()
+           throws Exception {
+
+      assertIllegalArgumentException(() -> new Parser().setFixedPointScale(19));
+   }
+}
@@ -0,0 +1,173 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_Handler_UseCases extends Parser_UseCasesBase {
+
+   private final static String JSON =
+           "{\"a\": [1, -2.5, \"x\\ny\", true, false, null], \"ą\" : {}}";
+   private final static String EVENTS =
+           "{ key(a) [ 1 -2.5 str(x\ny) true false null ] key(ą) { } } ";
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void pushesEvents_ForProperInput()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      Recorder r = new Recorder();
+
+      parser.parse(JSON, r);
+      assertEquals(EVENTS, r.toString());
+
+      r = new Recorder();
+      parser.parse(new StringReader(JSON), r);
+      assertEquals(EVENTS, r.toString());
+
+      r = new Recorder();
+      parser.parse(JSON.getBytes(UTF_8), r);
+      assertEquals(EVENTS, r.toString());
+
+      r = new Recorder();
+      parser.parse(new ByteArrayInputStream(JSON.getBytes(UTF_8)), r);
+      assertEquals(EVENTS, r.toString());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void ignoresEvents_NotImplementedByHandler()
+           throws Exception {
+
+      final long[] sum = new long[1];
+      new Parser().parse("[1, [2, {\"x\": 3}], \"4\"]", new Parser.Handler() {
+         @Override
+         public void value(final long value) {
+            sum[0] += value;
+         }
+      });
+      assertEquals(6, sum[0]);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void passesLongStrings_AsSingleSlice()
+           throws Exception {
+
+      final StringBuilder b = new StringBuilder();
+      for (int i = 0; i < 20000; ++i) {
+         b.append((char) ('a' + i % 26));
+      }
+      final String str = b.toString();
+      final Recorder r = new Recorder();
+
+      new Parser().parse(new StringReader("[\"" + str + "\"]"), r);
+      assertEquals("[ str(" + str + ") ] ", r.toString());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForImproperInput()
+           throws Exception {
+
+      try {
+         new Parser().parse("[1, }", new Recorder());
+         fail();
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals('}', e.character);
+         assertEquals(4, e.position);
+      }
+      try {
+         new Parser().parse("\"abc\"", new Recorder());
+         fail();
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals('"', e.character);
+      }
+      try {
+         new Parser().parse("[]", (Parser.Handler) null);
+         fail();
+      } catch (final NullPointerException e) {
+         assertEquals("handler", e.getMessage());
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private final static class Recorder implements Parser.Handler {
+
+      private final StringBuilder events = new StringBuilder();
+
+      @Override
+      public void startObject() throws IOException {
+         this.events.append("{ ");
+      }
+      @Override
+      public void key(final char[] chars, final int offset, final int length) {
+         this.events.append("key(").append(chars, offset, length).append(") ");
+      }
+      @Override
+      public void endObject() {
+         this.events.append("} ");
+      }
+      @Override
+      public void startArray() {
+         this.events.append("[ ");
+      }
+      @Override
+      public void endArray() {
+         this.events.append("] ");
+      }
+      @Override
+      public void value(final char[] chars, final int offset, final int length) {
+         this.events.append("str(").append(chars, offset, length).append(") ");
+      }
+      @Override
+      public void value(final long value) {
+         this.events.append(value).append(' ');
+      }
+      @Override
+      public void value(final double value) {
+         this.events.append(value).append(' ');
+      }
+      @Override
+      public void value(final boolean value) {
+         this.events.append(value).append(' ');
+      }
+      @Override
+      public void nullValue() {
+         this.events.append("null ");
+      }
+      @Override
+      public String toString() {
+         return this.events.toString();
+      }
+   }
+}
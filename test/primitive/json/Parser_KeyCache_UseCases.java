@@ -0,0 +1,138 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * Runs all parsing use cases with a key cache shared by parsers.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_KeyCache_UseCases extends Parser_Parse_UseCases {
+
+   private final static Parser.StringCache CACHE = new Parser.StringCache(64);
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final Parser parser = new Parser();
+      parser.setKeyCache(CACHE);
+      return parser.parse(str);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSameKeyInstances_ForConsecutiveMessages()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setKeyCache(new Parser.StringCache(16));
+      final String json = "{\"name\": \"name\", \"ą\": 1}";
+
+      final Map first = (Map) parser.parse(json);
+      final Map second = (Map) parser.parse(json);
+      final Map third = (Map) parser.parse(json.getBytes(UTF_8));
+      assertSame(key(first, "name"), key(second, "name"));
+      assertSame(key(first, "name"), key(third, "name"));
+      assertSame(key(first, "ą"), key(third, "ą"));
+      // string values are not cached
+      assertNotSame(first.get("name"), second.get("name"));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsEqualKeys_ForLongAndCollidingKeys()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setKeyCache(new Parser.StringCache(1));
+      final StringBuilder b = new StringBuilder();
+      for (int i = 0; i < 100; ++i) {
+         b.append('k');
+      }
+      final String json = "{\"" + b + "\": 1, \"a\": 2, \"b\": 3}";
+
+      assertEquals(new Parser().parse(json), parser.parse(json));
+      assertEquals(new Parser().parse(json), parser.parse(json.getBytes(UTF_8)));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsEqualKeys_ForCacheSharedByThreads()
+           throws Exception {
+
+      final Parser.StringCache cache = new Parser.StringCache(8);
+      final List<Thread> threads = new ArrayList<>();
+      final List<Throwable> errors = new ArrayList<>();
+      for (int t = 0; t < 4; ++t) {
+         final int id = t;
+         threads.add(new Thread() {
+            @Override
+            public void run() {
+               try {
+                  final Parser parser = new Parser();
+                  parser.setKeyCache(cache);
+                  for (int i = 0; i < 2000; ++i) {
+                     final String key = "k" + ((i + id) % 20);
+                     final Map m = (Map) parser.parse("{\"" + key + "\": " + i + "}");
+                     assertEquals(key, key(m, key));
+                  }
+               } catch (final Throwable e) {
+                  synchronized (errors) {
+                     errors.add(e);
+                  }
+               }
+            }
+         });
+      }
+      for (final Thread thread : threads) {
+         thread.start();
+      }
+      for (final Thread thread : threads) {
+         thread.join();
+      }
+      if (!errors.isEmpty()) {
+         fail(errors.get(0).toString());
+      }
+   }
+   /****************************************************************************
+    * @return the key instance of the map equal to the given one.
+    ***************************************************************************/
+   private static Object key(final Map map, final String key) {
+
+      for (final Object k : map.keySet()) {
+         if (k.equals(key)) {
+            return k;
+         }
+      }
+      return null;
+   }
+}
@@ -0,0 +1,153 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_Lines_UseCases extends Parser_UseCasesBase {
+
+   private final static String LINES =
+           "{\"a\": 1}\n[1, 2]\r\n\n  \"ą\"  \n12\n-1.5\ntrue\nnull\n{}";
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsRecords_ForProperInput()
+           throws Exception {
+
+      final Parser parser = new Parser();
+
+      assertRecords(readAll(parser.lines(new StringReader(LINES))));
+      assertRecords(readAll(parser.lines(
+              new ByteArrayInputStream(LINES.getBytes(UTF_8)))));
+
+      final Path file = Files.createTempFile("lines", ".json");
+      try {
+         Files.write(file, (LINES + "\n").getBytes(UTF_8));
+         assertRecords(readAll(parser.lines(file)));
+      } finally {
+         Files.delete(file);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsNoRecords_ForBlankInput()
+           throws Exception {
+
+      final Parser.LineReader r = new Parser().lines(new StringReader(" \n\n"));
+
+      assertFalse(r.hasNext());
+      try {
+         r.next();
+         fail();
+      } catch (final NoSuchElementException e) {
+         // expected
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForTwoValuesInOneLine()
+           throws Exception {
+
+      final Parser.LineReader r = new Parser().lines(
+              new StringReader("1\n2 3\n"));
+
+      assertEquals(1L, r.next());
+      try {
+         r.next();
+         fail();
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals('3', e.character);
+         assertEquals(4, e.position);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void retainsReadAhead_WhenBufferLinesAreClosed()
+           throws Exception {
+
+      final Parser p = new Parser();
+      final Reader in = new FilterReader(
+              new StringReader("{\"a\":1} {\"b\":2}")) {
+         @Override
+         public boolean markSupported() {
+            return false;
+         }
+      };
+
+      assertEquals(asMap("a", 1L), p.parse(in));
+      assertRecords(readAll(p.lines(ByteBuffer.wrap(LINES.getBytes(UTF_8)))));
+      assertEquals(asMap("b", 2L), p.parse(in));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static List<Object> readAll(final Parser.LineReader r)
+           throws Exception {
+
+      final List<Object> result = new ArrayList<>();
+      try {
+         while (r.hasNext()) {
+            result.add(r.next());
+         }
+      } finally {
+         r.close();
+      }
+      return result;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertRecords(final List<Object> records)
+           throws Exception {
+
+      assertEquals(8, records.size());
+      assertEquals(asMap("a", 1L), records.get(0));
+      assertEquals(asList(1L, 2L), records.get(1));
+      assertEquals("ą", records.get(2));
+      assertEquals(12L, records.get(3));
+      assertEquals(-1.5, records.get(4));
+      assertEquals(true, records.get(5));
+      assertEquals(null, records.get(6));
+      assertEquals(new HashMap<>(), records.get(7));
+   }
+}
@@ -0,0 +1,122 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_NumberConversion_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsCorrectlyRoundedDouble_ForHardCases()
+           throws Exception {
+
+      for (final String number : new String[]{"1.0e20", "1e-20", "0.1", "0.3",
+         "1e23", "8.41e21", "5e-324", "2e-324", "3e-324", "1e-400",
+         "1.7976931348623157e308", "1.7976931348623159e308", "1e309",
+         "2.2250738585072011e-308", "2.2250738585072012e-308",
+         "4.9406564584124654e-324", "9007199254740993.0",
+         "9007199254740992.99999999999999999999", "7.3177701707893310e+15",
+         "0.000000000000000000000000000000000000000000001",
+         "123456789012345678901234567890.123456789e-10",
+         "2.47032822920623272088284396434110686182529901307162382212792841250337753635104375932649918180817996189898282347722858865463328355177969898199387398005390939063150356595155702263922908583924491051844359318028499365361525003193704576782492193656236698636584807570015857692699037063119282795585513329278343384093519780155312465972635795746227664652728272200563740064854999770965994704540208281662262378573934507363390079677619305775067401763246736009689513405355374585166611342237666786041621596804619144672918403005300575308490487653917113865916462395249126236538818796362393732804238910186723484976682350898633885879256283027559956575244555072551893136908362547791869486679949683240497058210285131854513962138377228261454376934125320985913276672363281255e-324"}) {
+         assertDoubleEquals(Double.parseDouble(number), "[" + number + "]");
+         assertDoubleEquals(-Double.parseDouble(number), "[-" + number + "]");
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsCorrectlyRoundedDouble_ForRandomNumbers()
+           throws Exception {
+
+      final Random random = new Random(7);
+      final Parser parser = new Parser();
+      for (int i = 0; i < 100000; ++i) {
+         final String number;
+         switch (i % 4) {
+            case 0:
+               number = Double.toString(
+                       Double.longBitsToDouble(random.nextLong() & ~(1L << 63)));
+               break;
+            case 1:
+               number = Double.toString(random.nextDouble());
+               break;
+            case 2:
+               number = random.nextInt(100000) + "."
+                       + Math.abs(random.nextLong()) + Math.abs(random.nextLong())
+                       + "e" + (random.nextInt(80) - 40);
+               break;
+            default:
+               number = Math.abs(random.nextLong()) + "e"
+                       + (random.nextInt(700) - 350);
+         }
+         if (number.contains("Infinity") | number.contains("NaN")) {
+            continue;
+         }
+         final Number parsed = (Number) ((List) parser.parse(
+                 "[" + number + "]")).get(0);
+         assertEquals(number, (Object) Double.parseDouble(number),
+                 parsed.doubleValue());
+         final Number utf8 = (Number) ((List) parser.parse(
+                 ("[" + number + "]").getBytes(UTF_8))).get(0);
+         assertEquals(number, parsed, utf8);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsLong_ForIntegersFittingInLong()
+           throws Exception {
+
+      assertLongEquals(Long.MAX_VALUE, "[9223372036854775807]");
+      assertLongEquals(Long.MIN_VALUE, "[-9223372036854775808]");
+      assertLongEquals(100000000000000000L, "[1e17]");
+      assertLongEquals(9000000000000000000L, "[9e18]");
+      assertLongEquals(0, "[0e400]");
+      assertLongEquals(12, "[0000000000000000000000012]");
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsDouble_ForIntegersOverflowingLong()
+           throws Exception {
+
+      assertDoubleEquals(1e20, "[1e20]");
+      assertDoubleEquals(1e19, "[1E+19]");
+      assertDoubleEquals(9223372036854775808.0, "[9223372036854775808]");
+      assertDoubleEquals(-9223372036854775809.0, "[-9223372036854775809]");
+      assertDoubleEquals(123456789012345678901234567890.0,
+              "[123456789012345678901234567890]");
+      assertDoubleEquals(Double.POSITIVE_INFINITY, "[1e99999999999999999999]");
+      assertDoubleEquals(0.0, "[1e-99999999999999999999]");
+   }
+}
@@ -0,0 +1,135 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ParallelArray_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSameList_AsSequentialParser()
+           throws Exception {
+
+      final StringBuilder b = new StringBuilder(" [");
+      for (int i = 0; i < 1000; ++i) {
+         if (i > 0) {
+            b.append(", ");
+         }
+         switch (i % 5) {
+            case 0:
+               b.append("{\"id\": ").append(i).append(", \"s\": \"],[{\\\"\"}");
+               break;
+            case 1:
+               b.append("[").append(i).append(", [\"ą\"], {}]");
+               break;
+            case 2:
+               b.append("\"x").append(i).append("\\\\\"");
+               break;
+            case 3:
+               b.append(i).append(".5");
+               break;
+            default:
+               b.append("null");
+         }
+      }
+      final String json = b.append("] ").toString();
+      final Object expected = new Parser().parse(json);
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         assertEquals(expected, Parser.parseArray(json.getBytes(UTF_8), pool));
+         assertEquals(expected, Parser.parseArray(
+                 ByteBuffer.wrap(json.getBytes(UTF_8)), pool, 100));
+
+         final Path file = Files.createTempFile("array", ".json");
+         try {
+            Files.write(file, json.getBytes(UTF_8));
+            assertEquals(expected, Parser.parseArray(file, pool));
+         } finally {
+            Files.delete(file);
+         }
+      } finally {
+         pool.shutdown();
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsEmptyList_ForEmptyArray()
+           throws Exception {
+
+      final ForkJoinPool pool = new ForkJoinPool(2);
+      try {
+         assertEquals(0, Parser.parseArray(" [ ] ".getBytes(UTF_8), pool).size());
+      } finally {
+         pool.shutdown();
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForImproperInput()
+           throws Exception {
+
+      final ForkJoinPool pool = new ForkJoinPool(2);
+      try {
+         assertUnexpected(pool, "{}", '{', 0);
+         assertUnexpected(pool, "[1,]", ']', 3);
+         assertUnexpected(pool, "[,1]", ',', 1);
+         assertUnexpected(pool, "[1, 2 3]", '3', 6);
+         assertUnexpected(pool, "[1, 2, 3, 4, 5, [6}]", '}', 18);
+         assertUnexpected(pool, "[1}", '}', 2);
+         try {
+            Parser.parseArray("[1, [2]".getBytes(UTF_8), pool);
+            fail();
+         } catch (final EOFException e) {
+            // expected
+         }
+      } finally {
+         pool.shutdown();
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static void assertUnexpected(final ForkJoinPool pool,
+           final String json, final char character, final long position)
+           throws Exception {
+
+      try {
+         Parser.parseArray(ByteBuffer.wrap(json.getBytes(UTF_8)), pool, 2);
+         fail();
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals(character, e.character);
+         assertEquals(position, e.position);
+      }
+   }
+}
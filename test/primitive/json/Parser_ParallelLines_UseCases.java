@@ -0,0 +1,180 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ParallelLines_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsRecordsInOrder_ForOrderedMode()
+           throws Exception {
+
+      final Path file = Files.createTempFile("lines", ".json");
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         final List<Object> expected = writeRecords(file, 1000);
+         final List<Object> records = new ArrayList<>();
+
+         Parser.parseLines(file, pool, true, records::add, 100);
+         assertEquals(expected, records);
+
+         records.clear();
+         Parser.parseLines(file, pool, true, records::add);
+         assertEquals(expected, records);
+      } finally {
+         pool.shutdown();
+         Files.delete(file);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsAllRecords_ForUnorderedMode()
+           throws Exception {
+
+      final Path file = Files.createTempFile("lines", ".json");
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         final List<Object> expected = writeRecords(file, 1000);
+         final List<Object> records = Collections.synchronizedList(new ArrayList<>());
+
+         Parser.parseLines(file, pool, false, records::add, 100);
+         final List<Object> sorted = new ArrayList<>(records);
+         sorted.sort((a, b) -> Long.compare(id(a), id(b)));
+         assertEquals(expected, sorted);
+      } finally {
+         pool.shutdown();
+         Files.delete(file);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void reportsFilePosition_ForImproperInput()
+           throws Exception {
+
+      final Path file = Files.createTempFile("lines", ".json");
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         Files.write(file, "[1]\n[2]\n[3]\n[4}\n[5]\n".getBytes(UTF_8));
+         Parser.parseLines(file, pool, true, r -> { }, 4);
+         fail();
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals('}', e.character);
+         assertEquals(14, e.position);
+      } finally {
+         pool.shutdown();
+         Files.delete(file);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void stopsAtFirstFailure_ForUnorderedMode()
+           throws Exception {
+
+      final Path file = Files.createTempFile("lines", ".json");
+      final ForkJoinPool pool = new ForkJoinPool(2);
+      try {
+         final StringBuilder b = new StringBuilder("[1}\n");
+         for (int i = 0; i < 10000; ++i) {
+            b.append("[").append(i).append("]\n");
+         }
+         Files.write(file, b.toString().getBytes(UTF_8));
+         final AtomicInteger consumed = new AtomicInteger();
+         try {
+            Parser.parseLines(file, pool, false, 
+                  r -> consumed.incrementAndGet(), 10);
+            fail();
+         } catch (final Parser.UnexpectedCharacterException e) {
+            assertEquals('}', e.character);
+            assertEquals(2, e.position);
+         }
+         // at most four chunks of up to three records are ever submitted
+         assertTrue(consumed.get() <= 4 * 3);
+      } finally {
+         pool.shutdown();
+         Files.delete(file);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsConsumerFailure_ForUnorderedMode()
+           throws Exception {
+
+      final Path file = Files.createTempFile("lines", ".json");
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+         writeRecords(file, 1000);
+         Parser.parseLines(file, pool, false, r -> {
+            throw new IllegalStateException("consumer");
+         }, 100);
+         fail();
+      } catch (final IllegalStateException e) {
+         assertEquals("consumer", e.getMessage());
+      } finally {
+         pool.shutdown();
+         Files.delete(file);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private List<Object> writeRecords(final Path file, final int count)
+           throws Exception {
+
+      final List<Object> expected = new ArrayList<>();
+      final StringBuilder b = new StringBuilder();
+      for (int i = 0; i < count; ++i) {
+         b.append("{\"id\": ").append(i).append(", \"name\": \"ą").append(i)
+                 .append("\"}\n");
+         expected.add(asMap("id", (long) i, "name", "ą" + i));
+      }
+      Files.write(file, b.toString().getBytes(UTF_8));
+      return expected;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static long id(final Object record) {
+
+      return (Long) ((Map) record).get("id");
+   }
+}
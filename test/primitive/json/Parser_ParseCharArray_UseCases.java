@@ -0,0 +1,90 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.IOException;
+import org.junit.Test;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * Runs all parsing use cases against parse(char[], int, int) with the JSON 
+ * text surrounded by characters that must not be read.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ParseCharArray_UseCases extends Parser_Parse_UseCases {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final char[] chars = ("x]\"" + str + "\"}x").toCharArray();
+      return new Parser().parse(chars, 3, str.length());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIndexOutOfBounds_ForIllegalSlice()
+           throws Exception {
+
+      final char[] chars = "[1]".toCharArray();
+      assertIndexOutOfBounds(chars, -1, 3);
+      assertIndexOutOfBounds(chars, 0, 4);
+      assertIndexOutOfBounds(chars, 1, 3);
+      assertIndexOutOfBounds(chars, 0, -1);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void worksProperly_ForCharSequence()
+           throws Exception {
+
+      final Parser p = new Parser();
+      final StringBuilder json = new StringBuilder("[\"a\", true, null]");
+
+      assertEquals(asList("a", Boolean.TRUE, null), p.parse(json));
+      assertEquals(asList("a", Boolean.TRUE, null), p.parse(json.toString()));
+      assertEquals(asList(1L, 2L), p.parse("xx[1,2]yy".toCharArray(), 2, 5));
+
+      final StringBuilder longString = new StringBuilder();
+      while (longString.length() < 20000) {
+         longString.append("abcdefghij\\n");
+      }
+      final Object result = p.parse(new StringBuilder("[\"").append(longString)
+              .append("\", 123456]"));
+      assertEquals(asList(longString.toString().replace("\\n", "\n"), 123456L),
+              result);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertIndexOutOfBounds(final char[] chars, final int offset,
+           final int length) throws IOException {
+
+      try {
+         new Parser().parse(chars, offset, length);
+         fail("IndexOutOfBoundsException failed.");
+      } catch (final IndexOutOfBoundsException e) {
+         assertTrue(true);
+      }
+   }
+}
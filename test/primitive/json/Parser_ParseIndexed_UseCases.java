@@ -0,0 +1,86 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * Runs all parsing use cases against parseIndexed(byte[], int, int) with 
+ * the UTF-8 encoded JSON text surrounded by bytes that must not be read.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ParseIndexed_UseCases extends Parser_Parse_UseCases {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final byte[] json = str.getBytes(UTF_8);
+      final byte[] bytes = ("x]\"" + str + "\"}x").getBytes(UTF_8);
+      return new Parser().parseIndexed(bytes, 3, json.length);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSameResult_AsSequentialParser()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      for (int shift = 0; shift < 70; ++shift) {
+         final StringBuilder b = new StringBuilder("{");
+         for (int i = 0; i < shift; ++i) {
+            b.append(' ');
+         }
+         b.append("\"list\": [");
+         for (int i = 0; i < 50; ++i) {
+            b.append("{\"s\\\\\": \"a\\\\\\\"b,]}\", \"n\":").append(i)
+                    .append(".25e1,\"t\":true, \"ą\\u0105\":[null, false, -7]},\n");
+         }
+         b.append("\"\\\\\"], \"x\":{}}");
+         final byte[] json = b.toString().getBytes(UTF_8);
+         assertEquals(parser.parse(json), parser.parseIndexed(json));
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForValuesNotSeparated()
+           throws Exception {
+
+      assertUnexpected("[\"a\"b]", 'b');
+      assertUnexpected("[\"a\" \"b\"]", '"');
+      assertUnexpected("[1 2]", '2');
+      assertUnexpected("{\"a\" 1}", '1');
+      // accepted by parse(byte[])
+      assertUnexpected("{\"a\":1 \"b\":2}", '"');
+      assertUnexpected("{\"a\":[\"\\\"\"]  \"b\":false}", '"');
+      try {
+         parse("[\"a\\\"]");
+         fail();
+      } catch (final EOFException e) {
+         // expected
+      }
+   }
+}
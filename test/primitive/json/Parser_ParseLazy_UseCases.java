@@ -0,0 +1,156 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * Runs all parsing use cases against parseLazy(byte[], int, int) with 
+ * the UTF-8 encoded JSON text surrounded by bytes that must not be read.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ParseLazy_UseCases extends Parser_Parse_UseCases {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final byte[] json = str.getBytes(UTF_8);
+      final byte[] bytes = ("x]\"" + str + "\"}x").getBytes(UTF_8);
+      return new Parser().parseLazy(bytes, 3, json.length);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void decodesMembers_OnlyWhenAccessed()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      final Map doc = (Map) parser.parseLazy(("{\"id\": 7, \"name\": \"ą\\n\", "
+              + "\"tags\": [\"a\", {\"x\": null}], \"\\u0061\": 1.5}").getBytes(UTF_8));
+      // the parser can be reused while the view is in use
+      assertEquals(asList(1L), parser.parse("[1]"));
+
+      assertEquals(4, doc.size());
+      assertEquals(7L, doc.get("id"));
+      assertSame(doc.get("id"), doc.get("id"));
+      assertEquals("ą\n", doc.get("name"));
+      assertEquals(1.5, doc.get("a"));
+      assertTrue(doc.containsKey("tags"));
+      assertFalse(doc.containsKey("nam"));
+      assertFalse(doc.containsKey("names"));
+      assertNull(doc.get("missing"));
+
+      final List tags = (List) doc.get("tags");
+      assertEquals(2, tags.size());
+      assertEquals("a", tags.get(0));
+      assertTrue(((Map) tags.get(1)).containsKey("x"));
+      assertNull(((Map) tags.get(1)).get("x"));
+      try {
+         tags.get(2);
+         fail();
+      } catch (final IndexOutOfBoundsException e) {
+         // expected
+      }
+      try {
+         doc.put("b", 1L);
+         fail();
+      } catch (final UnsupportedOperationException e) {
+         // expected
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void generatesSameText_AsEagerResult()
+           throws Exception {
+
+      final String json = "{\"a\":[1,2.5,{\"b\":\"c\\\"\"},[],{}],\"d\":true,\"e\":null}";
+      final Parser parser = new Parser();
+      final Object lazy = parser.parseLazy(json.getBytes(UTF_8));
+
+      assertEquals(parser.parse(json), lazy);
+      assertEquals(parser.parse(new Generator().toString(lazy)), lazy);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsDuplicatedKey_ForEscapedAndLargeObjects()
+           throws Exception {
+
+      assertDuplicated("{\"ab\":1,\"\\u0061b\":2}", "ab");
+      final StringBuilder b = new StringBuilder("{");
+      for (int i = 0; i < 40; ++i) {
+         b.append("\"k").append(i).append("\":").append(i).append(',');
+      }
+      assertDuplicated(b.append("\"k7\":0}").toString(), "k7");
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void findsNoMember_ForKeysExtendingPastTheName()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      final Map doc = (Map) parser.parseLazy(
+            "{\"ab\":\"x\"}".getBytes(UTF_8));
+      assertNull(doc.get("ab\":"));
+      assertFalse(doc.containsKey("ab\":"));
+      assertNull(doc.get("a"));
+      assertEquals("x", doc.get("ab"));
+
+      final StringBuilder key = new StringBuilder("ab\":1}");
+      for (int i = 0; i < 100; ++i) {
+         key.append('z');
+      }
+      final Map small = (Map) parser.parseLazy("{\"ab\":1}".getBytes(UTF_8));
+      assertNull(small.get(key.toString()));
+      assertFalse(small.containsKey("abc"));
+      final byte[] bytes = "{\"ab\":1}".getBytes(UTF_8);
+      final Map sliced = (Map) parser.parseLazy(bytes, 0, bytes.length);
+      assertNull(sliced.get(key.toString()));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertDuplicated(final String json, final String key)
+           throws Exception {
+
+      try {
+         parse(json);
+         fail();
+      } catch (final Parser.DuplicatedKeyException e) {
+         assertEquals(key, e.key);
+      }
+   }
+}
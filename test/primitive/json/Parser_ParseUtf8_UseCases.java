@@ -0,0 +1,158 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * Runs all parsing use cases against parse(byte[], int, int) with the UTF-8 
+ * encoded JSON text surrounded by bytes that must not be read.
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ParseUtf8_UseCases extends Parser_Parse_UseCases {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final byte[] json = str.getBytes(UTF_8);
+      final byte[] bytes = ("x]\"" + str + "\"}x").getBytes(UTF_8);
+      return new Parser().parse(bytes, 3, json.length);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSupplementaryCharacters_ForFourByteSequences()
+           throws Exception {
+
+      assertStringEquals("a😀b", "[\"a😀b\"]");
+      assertStringEquals("€ą", "[\"€ą\"]");
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsUnexpected_ForMalformedUtf8()
+           throws Exception {
+
+      assertUnexpected(new byte[]{'[', '"', (byte) 0x80, '"', ']'}, (char) 0x80);
+      assertUnexpected(new byte[]{'[', '"', (byte) 0xC0, (byte) 0x80, '"', ']'}, (char) 0xC0);
+      assertUnexpected(new byte[]{'[', '"', (byte) 0xC5, 'a', '"', ']'}, 'a');
+      assertUnexpected(new byte[]{'[', '"', (byte) 0xE0, (byte) 0x80, (byte) 0x80, '"', ']'}, (char) 0x80);
+      assertUnexpected(new byte[]{'[', '"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"', ']'}, (char) 0xA0);
+      assertUnexpected(new byte[]{'[', '"', (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80, '"', ']'}, (char) 0x90);
+      assertUnexpected(new byte[]{'[', '"', (byte) 0xF8, '"', ']'}, (char) 0xF8);
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void worksProperly_ForInputStreamAndByteBuffer()
+           throws Exception {
+
+      final Parser p = new Parser();
+      final String json = "{\"ab\\u0105c\": [\"ą€\", 12, -1.5]} [\"x\"]";
+      final InputStream in = new ChunkedInputStream(json.getBytes(UTF_8), 1);
+
+      assertEquals(asMap("abąc", asList("ą€", 12L, -1.5)), p.parse(in));
+      assertEquals(asList("x"), p.parse(in));
+
+      final ByteBuffer direct = ByteBuffer.allocateDirect(64);
+      direct.put(json.getBytes(UTF_8)).flip();
+      assertEquals(asMap("abąc", asList("ą€", 12L, -1.5)), p.parse(direct));
+      assertEquals(asList("x"), p.parse(direct));
+      assertEquals(0, direct.remaining());
+
+      final ByteBuffer heap = ByteBuffer.wrap(("  " + json).getBytes(UTF_8), 2, 10);
+      heap.limit(heap.capacity());
+      assertEquals(asMap("abąc", asList("ą€", 12L, -1.5)), p.parse(heap));
+      assertEquals(asList("x"), p.parse(heap));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void worksProperly_ForFile()
+           throws Exception {
+
+      final Path path = Files.createTempFile("primitive-json", ".json");
+      try {
+         Files.write(path, "{\"a\": [\"ą€\", 1]}\n  [true]\n [x]".getBytes(UTF_8));
+         final Parser p = new Parser();
+
+         assertEquals(asMap("a", asList("ą€", 1L)), p.parse(path));
+         try (final FileChannel channel = FileChannel.open(path)) {
+            assertEquals(asMap("a", asList("ą€", 1L)), p.parse(channel));
+            assertEquals(asList(Boolean.TRUE), p.parse(channel));
+            try {
+               p.parse(channel);
+               fail("Unexpected character failed.");
+            } catch (final Parser.UnexpectedCharacterException e) {
+               assertEquals('x', e.character);
+               assertEquals(3L, e.position);
+            }
+         }
+      } finally {
+         Files.delete(path);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertUnexpected(final byte[] bytes, final char unexpectedChar)
+           throws IOException {
+
+      try {
+         new Parser().parse(bytes);
+         fail("Unexpected character failed.");
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals(unexpectedChar, e.character);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private final static class ChunkedInputStream extends ByteArrayInputStream {
+
+      ChunkedInputStream(final byte[] bytes, final int chunkSize) {
+
+         super(bytes);
+         this.chunkSize = chunkSize;
+      }
+
+      @Override
+      public synchronized int read(final byte[] b, final int off, final int len) {
+
+         return super.read(b, off, Math.min(len, this.chunkSize));
+      }
+
+      private final int chunkSize;
+   }
+}
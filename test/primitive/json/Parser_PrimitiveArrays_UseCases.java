@@ -0,0 +1,218 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_PrimitiveArrays_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsLongList_ForArrayOfIntegers()
+           throws Exception {
+
+      final Parser parser = new Parser(16, 16, 2);
+      parser.setPrimitiveArrays(true);
+
+      final Object result = parser.parse("[1, -2 ,3,4,5]");
+      assertTrue(result instanceof LongList);
+      final LongList list = (LongList) result;
+      assertEquals(5, list.size());
+      assertEquals(-2, list.getLong(1));
+      assertArrayEquals(new long[]{1, -2, 3, 4, 5}, list.toLongArray());
+      assertEquals(asList(1L, -2L, 3L, 4L, 5L), list);
+      assertEquals(list, parser.parse("[1, -2 ,3,4,5]".getBytes(UTF_8)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsDoubleList_ForArrayOfDecimals()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setPrimitiveArrays(true);
+
+      final Object result = parser.parse("[1.5, -2.5e1]");
+      assertTrue(result instanceof DoubleList);
+      final DoubleList list = (DoubleList) result;
+      assertEquals(-25.0, list.getDouble(1), 0);
+      assertArrayEquals(new double[]{1.5, -25.0}, list.toDoubleArray(), 0);
+      assertEquals(asList(1.5, -25.0), list);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void fallsBackToArrayList_WhenTypesMix()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setPrimitiveArrays(true);
+
+      for (final String json : new String[]{"[1, 2, 3.5, 4]", "[1.5, 2]",
+         "[1, \"a\", 2]", "[1, null]", "[1, [2]]", "[\"a\", 1]", "[]"}) {
+         final Object result = parser.parse(json);
+         assertTrue(json, result instanceof ArrayList);
+         assertEquals(json, new Parser().parse(json), result);
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void boxesNumbersAlike_WhateverTheirPosition()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setPrimitiveArrays(true);
+      final List mixed = (List) parser.parse("[1, 2, \"x\", 3, 1.5]");
+      assertEquals(asList(Long.class, Long.class, String.class, Long.class, 
+            Double.class), classes(mixed));
+
+      parser.setRawNumbers(true);
+      for (final String json : new String[]{"[1, 2, \"x\", 3, 1.5]", 
+         "[1, 2, 1.5]", "[1, 2]"}) {
+         final List list = (List) parser.parse(json);
+         assertTrue(json, list instanceof ArrayList);
+         for (final Object element : list) {
+            assertTrue(json, element instanceof RawNumber 
+                  | element instanceof String);
+         }
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static List<Class<?>> classes(final List list) {
+
+      final List<Class<?>> result = new ArrayList<>();
+      for (final Object element : list) {
+         result.add(element.getClass());
+      }
+      return result;
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsPrimitiveLists_ForNestedArrays()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setPrimitiveArrays(true);
+
+      final Map map = (Map) parser.parse(
+              "{\"a\": [[1, 2], [0.5]], \"b\": [3]}");
+      final List a = (List) map.get("a");
+      assertTrue(a.get(0) instanceof LongList);
+      assertTrue(a.get(1) instanceof DoubleList);
+      assertTrue(map.get("b") instanceof LongList);
+      assertEquals(new Parser().parse("{\"a\": [[1, 2], [0.5]], \"b\": [3]}"),
+              map);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsArrayList_ByDefault()
+           throws Exception {
+
+      assertTrue(new Parser().parse("[1, 2]") instanceof ArrayList);
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForMalformedNumericArray()
+           throws Exception {
+
+      assertUnexpected("[1 2]", '2');
+      assertUnexpected("[1,]", ']');
+      assertUnexpected("[1.5, 2.5 }", '}');
+      assertEOF("[1, 2");
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForIndexOutOfBounds()
+           throws Exception {
+
+      final LongList list = new LongList(new long[]{1, 2}, 1);
+      try {
+         list.getLong(1);
+         fail();
+      } catch (final IndexOutOfBoundsException e) {
+         // expected
+      }
+      try {
+         new DoubleList(new double[0]).getDouble(-1);
+         fail();
+      } catch (final IndexOutOfBoundsException e) {
+         // expected
+      }
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void generatesSameText_AsForBoxedList()
+           throws Exception {
+
+      final Generator generator = new Generator();
+
+      assertEquals(generator.toString(asList(1L, -2L, Long.MAX_VALUE)),
+              generator.toString(new LongList(new long[]{1, -2, Long.MAX_VALUE})));
+      assertEquals(generator.toString(asList(0.5, -2.25, Double.NaN)),
+              generator.toString(new DoubleList(
+                      new double[]{0.5, -2.25, Double.NaN})));
+      assertEquals("[]", generator.toString(new LongList(new long[0])));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final Parser parser = new Parser();
+      parser.setPrimitiveArrays(true);
+      return parser.parse(str);
+   }
+}
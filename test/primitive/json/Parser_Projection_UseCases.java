@@ -0,0 +1,119 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.HashMap;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_Projection_UseCases extends Parser_UseCasesBase {
+
+   private final static String JSON = "{\"abcde\": {\"interval\": 10, "
+           + "\"name\": \"x\\u0041\", \"list\": [1, 2.5e3, true]}, "
+           + "\"alarms\": [{\"state\": \"on\", \"id\": 1}, 7, {\"id\": 2}, "
+           + "{\"state\": [null, {}]}], \"ą\": {\"\\\"\": false}}";
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSelectedMembers_ForProperInput()
+           throws Exception {
+
+      final Parser.Projection projection = new Parser.Projection(
+              "alarms[*].state", "abcde.interval", "ą");
+      final Parser parser = new Parser();
+      final Object expected = parser.parse("{\"abcde\": {\"interval\": 10}, "
+              + "\"alarms\": [{\"state\": \"on\"}, {}, {\"state\": [null, {}]}], "
+              + "\"ą\": {\"\\\"\": false}}");
+
+      assertEquals(expected, parser.parse(JSON, projection));
+      assertEquals(expected, parser.parse(new StringReader(JSON), projection));
+      assertEquals(expected, parser.parse(JSON.getBytes(UTF_8), projection));
+      assertEquals(expected, parser.parse(
+              new ByteArrayInputStream(JSON.getBytes(UTF_8)), projection));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSelectedElements_ForTopLevelArray()
+           throws Exception {
+
+      final Parser.Projection projection = new Parser.Projection("[*].id");
+
+      assertEquals(asList(asMap("id", 1L), new HashMap<>()),
+              new Parser().parse("[{\"id\": 1, \"x\": [1]}, {\"y\": 2}, 3]", projection));
+      assertEquals(new HashMap<>(), new Parser().parse(JSON, projection));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForImproperSkippedInput()
+           throws Exception {
+
+      final Parser.Projection projection = new Parser.Projection("a");
+      assertUnexpected(projection, "{\"b\": [1, 2 3], \"a\": 1}", '3');
+      assertUnexpected(projection, "{\"b\": {\"c\" 1}}", '1');
+      assertUnexpected(projection, "{\"b\": \"\\x\"}", 'x');
+      assertUnexpected(projection, "{\"b\": tru}", '}');
+      assertUnexpected(projection, "{\"b\": -}", '}');
+      try {
+         new Parser().parse("{\"a\": 1, \"b\": 2, \"a\": 3}", projection);
+         fail();
+      } catch (final Parser.DuplicatedKeyException e) {
+         assertEquals("a", e.key);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIllegalArgument_ForMalformedPath()
+           throws Exception {
+
+      for (final String path : asList("", ".a", "a.", "a..b", "a[1]", "a[*]b", "[")) {
+         try {
+            new Parser.Projection(path);
+            fail(path);
+         } catch (final IllegalArgumentException e) {
+            // expected
+         }
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private static void assertUnexpected(final Parser.Projection projection,
+           final String json, final char character) throws Exception {
+
+      try {
+         new Parser().parse(json, projection);
+         fail();
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals(character, e.character);
+      }
+   }
+}
@@ -0,0 +1,141 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_RawNumbers_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsRawNumbers_ForAllKindsOfNumbers()
+           throws Exception {
+
+      final String json = "[0, -12, 3.25, -0.5e+2, 1E3, 2e-1, 12345678901234, "
+            + "9223372036854775807, -9223372036854775808, 9223372036854775808, "
+            + "-9223372036854775809, 12345678901234567890]";
+      final List list = (List) parse(json);
+      final List eager = (List) new Parser().parse(json);
+
+      assertEquals(eager.size(), list.size());
+      for (int i = 0; i < list.size(); ++i) {
+         final RawNumber number = (RawNumber) list.get(i);
+         final Number expected = (Number) eager.get(i);
+         assertEquals(expected.longValue(), number.longValue());
+         assertEquals(expected.doubleValue(), number.doubleValue(), 1e-9);
+      }
+      assertEquals("-0.5e+2", list.get(3).toString());
+      assertTrue(((RawNumber) list.get(1)).isInteger());
+      assertFalse(((RawNumber) list.get(4)).isInteger());
+      assertEquals(-12, ((Number) list.get(1)).intValue());
+      assertEquals(Long.MIN_VALUE, ((Number) list.get(8)).longValue());
+      assertEquals(Long.MAX_VALUE, ((Number) list.get(11)).longValue());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsRawNumbers_ForUtf8Input()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setRawNumbers(true);
+
+      final Map map = (Map) parser.parse("{\"a\": -1.5, \"b\": 7}".getBytes(UTF_8));
+      assertEquals(-1.5, ((Number) map.get("a")).doubleValue(), 0);
+      assertEquals(7, ((Number) map.get("b")).longValue());
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void keepsNumbersIntact_AcrossSlabs()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setRawNumbers(true);
+
+      final StringBuilder json = new StringBuilder("[");
+      for (int i = 0; i < 1000; ++i) {
+         json.append(i == 0 ? "" : ",").append(1000000L + i);
+      }
+      final List first = (List) parser.parse(json.append(']'));
+      final List second = (List) parser.parse(json);
+      for (int i = 0; i < 1000; ++i) {
+         assertEquals(1000000L + i, ((Number) first.get(i)).longValue());
+         assertEquals(first.get(i), second.get(i));
+         assertEquals(first.get(i).hashCode(), second.get(i).hashCode());
+      }
+      assertFalse(first.get(0).equals(first.get(1)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void generatorWritesRawNumbers_Verbatim()
+           throws Exception {
+
+      final String json = "[1.50,-0e0,123456789012345678901234567890]";
+
+      assertEquals(json, new Generator().toString(parse(json)));
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsException_ForMalformedNumbers()
+           throws Exception {
+
+      assertUnexpected("[-]", ']');
+      assertUnexpected("[-.1]", '.');
+      assertUnexpected("[1.]", ']');
+      assertUnexpected("[1.e3]", 'e');
+      assertUnexpected("[1e]", ']');
+      assertUnexpected("[1e+]", ']');
+      assertUnexpected("[1a]", 'a');
+      assertUnexpected("[1.5.5]", '.');
+      assertEOF("[-");
+      assertEOF("[1.");
+      assertEOF("[1e");
+   }
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Override
+   protected Object parse(final String str) throws IOException {
+
+      final Parser parser = new Parser();
+      parser.setRawNumbers(true);
+      return parser.parse(str);
+   }
+}
@@ -15,16 +15,19 @@
 //------------------------------------------------------------------------------
 package primitive.json;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.HashMap;
 import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 
@@ -86,4 +89,107 @@ public class Parser_Resuse_UseCases extends Parser_UseCasesBase {
       assertEquals(asList("a", Boolean.TRUE, null), p.parse("[\"a\", true, null]"));
       assertEquals(asMap("b", Boolean.FALSE), p.parse("{\"b\": false}"));
    }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void parsesConsecutiveMessages_FromTheSameReader() throws Exception {
+
+      final Parser p = new Parser();
+      final Reader in = new StringReader("{\"b\": false} [\"a\", true, null]\n{\"b\": false}");
+
+      assertEquals(asMap("b", Boolean.FALSE), p.parse(in));
+      assertEquals(asList("a", Boolean.TRUE, null), p.parse(in));
+      assertEquals(asMap("b", Boolean.FALSE), p.parse(in));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void leavesReader_JustAfterParsedValue() throws Exception {
+
+      final Parser p = new Parser();
+      final Reader first = new StringReader("{\"b\": false} [1]x");
+      final Reader second = new StringReader("[2] [3]");
+
+      assertEquals(asMap("b", Boolean.FALSE), p.parse(first));
+      assertEquals(asList(2L), p.parse(second));
+      assertEquals(asList(4L), p.parse("[4]"));
+      assertEquals(asList(1L), p.parse(first));
+      assertEquals('x', first.read());
+      assertEquals(' ', second.read());
+      assertEquals(asList(3L), p.parse(second));
+
+      final InputStream stream = new ByteArrayInputStream(
+            "[5] {\"c\": 6}\n".getBytes(UTF_8));
+      assertEquals(asList(5L), p.parse(stream));
+      assertEquals(asList(7L), p.parse(new ByteArrayInputStream(
+            "[7]".getBytes(UTF_8))));
+      assertEquals(asMap("c", 6L), p.parse(stream));
+      assertEquals('\n', stream.read());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void retainsReadAhead_WhenInMemoryInputIsParsedInBetween() 
+           throws Exception {
+
+      final Parser p = new Parser();
+      final Reader in = new ChunkedReader("[1] [2] [3]", 100);
+
+      assertEquals(asList(1L), p.parse(in));
+      assertEquals(asList(4L), p.parse("[4]"));
+      assertEquals(asList(5L), p.parse("[5]".toCharArray(), 0, 3));
+      assertEquals(asList(6L), p.parse("[6]".getBytes(UTF_8)));
+      assertEquals(asList(2L), p.parse(in));
+      assertEquals(asList(3L), p.parse(in));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void worksProperly_WhenReaderReturnsSmallBlocks() throws Exception {
+
+      final Parser p = new Parser();
+      final String json = "{\"abc\\ndef\": [123456789, -1.5e3, \"\\u0105bcdefghijk\"], "
+              + "\"b\":    \t\n true}[12]";
+      final Reader in = new ChunkedReader(json, 3);
+
+      assertEquals(asMap("abc\ndef", asList(123456789L, -1500.0, "\u0105bcdefghijk"),
+              "b", Boolean.TRUE), p.parse(in));
+      assertEquals(asList(12L), p.parse(in));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private final static class ChunkedReader extends Reader {
+
+      ChunkedReader(final String s, final int chunkSize) {
+
+         this.s = s;
+         this.chunkSize = chunkSize;
+      }
+
+      @Override
+      public int read(final char[] cbuf, final int off, final int len) {
+
+         if (this.pos == this.s.length()) {
+            return -1;
+         }
+         final int count = Math.min(Math.min(len, this.chunkSize),
+                 this.s.length() - this.pos);
+         this.s.getChars(this.pos, this.pos + count, cbuf, off);
+         this.pos += count;
+         return count;
+      }
+
+      @Override
+      public void close() {
+      }
+
+      private final String s;
+      private final int chunkSize;
+      private int pos = 0;
+   }
 }
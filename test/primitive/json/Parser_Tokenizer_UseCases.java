@@ -0,0 +1,198 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.io.Reader;
+import java.io.StringReader;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static primitive.json.Parser.Token.*;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_Tokenizer_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsTokens_ForProperInput()
+           throws Exception {
+
+      final Parser.Tokenizer t = new Parser().tokenizer(
+              "{\"a\": [1, -2.5, \"x\\ny\", true, false, null], \"b\" : {}}");
+
+      assertEquals(BEGIN_OBJECT, t.peek());
+      t.beginObject();
+      assertTrue(t.hasNext());
+      assertEquals("a", t.nextName());
+      t.beginArray();
+      assertEquals(1L, t.nextLong());
+      assertEquals(-2.5, t.nextDouble(), 0.0);
+      assertEquals("x\ny", t.nextString());
+      assertTrue(t.nextBoolean());
+      assertFalse(t.nextBoolean());
+      assertEquals(NULL, t.peek());
+      t.nextNull();
+      assertFalse(t.hasNext());
+      t.endArray();
+      assertEquals("b", t.nextName());
+      t.beginObject();
+      assertEquals(END_OBJECT, t.peek());
+      t.endObject();
+      t.endObject();
+      assertEquals(END_DOCUMENT, t.peek());
+      assertFalse(t.hasNext());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsValues_ForNextToken()
+           throws Exception {
+
+      final Parser.Tokenizer t = new Parser().tokenizer(
+              "[{\"k\":\"v\"}, 12, 1.5, true, null]".getBytes(UTF_8));
+
+      assertEquals(BEGIN_ARRAY, t.nextToken());
+      assertEquals(BEGIN_OBJECT, t.nextToken());
+      assertEquals(NAME, t.nextToken());
+      assertEquals("k", t.value());
+      assertEquals(STRING, t.nextToken());
+      assertEquals("v", t.value());
+      assertEquals(END_OBJECT, t.nextToken());
+      assertEquals(NUMBER, t.nextToken());
+      assertEquals(12L, t.value());
+      assertEquals(NUMBER, t.nextToken());
+      assertEquals(1.5, t.value());
+      assertEquals(BOOLEAN, t.nextToken());
+      assertEquals(Boolean.TRUE, t.value());
+      assertEquals(NULL, t.nextToken());
+      assertEquals(null, t.value());
+      assertEquals(END_ARRAY, t.nextToken());
+      assertEquals(END_DOCUMENT, t.nextToken());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void skipsValues_ForSkipValue()
+           throws Exception {
+
+      final Parser.Tokenizer t = new Parser().tokenizer(
+              "{\"a\": {\"x\": [1, {\"y\": \"\\u0105\"}]}, \"b\": \"c\", \"d\": 3}");
+
+      t.beginObject();
+      t.skipValue(); // name and value
+      assertEquals("b", t.nextName());
+      t.skipValue();
+      assertEquals("d", t.nextName());
+      assertEquals(3L, t.nextLong());
+      t.endObject();
+      assertEquals(END_DOCUMENT, t.peek());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void acceptsScalars_AtTopLevel()
+           throws Exception {
+
+      assertEquals(123L, new Parser().tokenizer("123").nextLong());
+      assertEquals(" x", new Parser().tokenizer(" \" x\" ").nextString());
+      assertTrue(new Parser().tokenizer("true").nextBoolean());
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void leavesFollowingInput_ForParser()
+           throws Exception {
+
+      final Parser p = new Parser();
+      final Reader in = new StringReader("12 [\"a\"]");
+      final Parser.Tokenizer t = p.tokenizer(in);
+
+      assertEquals(12L, t.nextLong());
+      assertEquals(END_DOCUMENT, t.peek());
+      assertEquals(asList("a"), p.parse(in));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIllegalState_ForUnexpectedToken()
+           throws Exception {
+
+      final Parser.Tokenizer t = new Parser().tokenizer("[1]");
+      try {
+         t.beginObject();
+         fail("IllegalStateException failed.");
+      } catch (final IllegalStateException e) {
+         assertEquals("Expected BEGIN_OBJECT but was BEGIN_ARRAY.", e.getMessage());
+      }
+      t.beginArray();
+      try {
+         t.nextString();
+         fail("IllegalStateException failed.");
+      } catch (final IllegalStateException e) {
+         assertTrue(true);
+      }
+      final Parser.Tokenizer n = new Parser().tokenizer("[1.5]");
+      n.beginArray();
+      try {
+         n.nextLong();
+         fail("NumberFormatException failed.");
+      } catch (final NumberFormatException e) {
+         assertTrue(true);
+      }
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsUnexpected_ForMalformedInput()
+           throws Exception {
+
+      assertUnexpectedToken("[1,]", ']');
+      assertUnexpectedToken("[1 2]", '2');
+      assertUnexpectedToken("{\"a\" 1}", '1');
+      assertUnexpectedToken("{\"a\":1,}", '}');
+      assertUnexpectedToken("{1:1}", '1');
+      assertUnexpectedToken("[1x]", 'x');
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   private void assertUnexpectedToken(final String json, final char unexpectedChar)
+           throws Exception {
+
+      final Parser.Tokenizer t = new Parser().tokenizer(json);
+      try {
+         while (t.nextToken() != END_DOCUMENT) {
+         }
+         fail("Unexpected character failed.");
+      } catch (final Parser.UnexpectedCharacterException e) {
+         assertEquals(unexpectedChar, e.character);
+      }
+   }
+}
@@ -0,0 +1,87 @@
+//------------------------------------------------------------------------------
+//Copyright 2014 Lukasz Bownik
+//
+//Licensed under the Apache License, Version 2.0 (the "License");
+//you may not use this file except in compliance with the License.
+//You may obtain a copy of the License at
+//
+//    http://www.apache.org/licenses/LICENSE-2.0
+//
+//Unless required by applicable law or agreed to in writing, software
+//distributed under the License is distributed on an "AS IS" BASIS,
+//WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//See the License for the specific language governing permissions and
+//limitations under the License.
+//------------------------------------------------------------------------------
+package primitive.json;
+
+import java.util.List;
+import org.junit.Test;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/*******************************************************************************
+ * @author lukasz.bownik@gmail.com
+ ******************************************************************************/
+public class Parser_ValueCache_UseCases extends Parser_UseCasesBase {
+
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void returnsSameInstances_ForShortValues()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      parser.setValueCache(new Parser.StringCache(64, 8));
+
+      final List first = (List) parser.parse("[\"LOW\", \"ACTIVE\", \"long value\"]");
+      final List second = (List) parser.parse(
+              "[\"LOW\", \"ACTIVE\", \"long value\"]".getBytes(UTF_8));
+      assertEquals(first, second);
+      assertSame(first.get(0), second.get(0));
+      assertSame(first.get(1), second.get(1));
+      assertNotSame(first.get(2), second.get(2));
+
+      final List third = (List) parser.parse("[\"LOW\", \"LOW\", \"ą\", \"ą\"]");
+      assertSame(first.get(0), third.get(1));
+      assertSame(third.get(2), third.get(3));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void evictsLeastRecentlyUsedValue_WhenSetIsFull()
+           throws Exception {
+
+      final Parser parser = new Parser();
+      // a single set of two strings
+      parser.setValueCache(new Parser.StringCache(2, 8));
+
+      final List first = (List) parser.parse("[\"a\", \"b\", \"a\", \"c\"]");
+      final List second = (List) parser.parse("[\"a\", \"b\"]");
+      assertSame(first.get(0), second.get(0));
+      assertNotSame(first.get(1), second.get(1));
+   }
+   /****************************************************************************
+    * 
+    ***************************************************************************/
+   @Test
+   public void throwsIllegalArgument_ForImproperCacheSize()
+           throws Exception {
+
+      for (final int[] args : asList(new int[]{0, 1}, new int[]{(1 << 30) + 1, 1},
+              new int[]{1, -1})) {
+         try {
+            new Parser.StringCache(args[0], args[1]);
+            fail();
+         } catch (final IllegalArgumentException e) {
+            // expected
+         }
+      }
+   }
+}